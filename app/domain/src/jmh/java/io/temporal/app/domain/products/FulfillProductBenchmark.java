@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.app.domain.products;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// How many concurrent `fulfillProduct` executions (each blocking for 2s) one JVM sustains when
+// every execution holds a platform thread, as an Activity slot does by default, versus a virtual
+// thread (`spring.curriculum.virtual-threads.task-queues`).
+// Each invocation runs `concurrency` executions at once; a score near 2s means they all ran
+// concurrently, anything above shows the cost of that many threads.
+// `virtual` needs a Java 21+ runtime: `./gradlew :app:domain:jmh` with a JDK 21 toolchain.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xss1m")
+@State(Scope.Benchmark)
+public class FulfillProductBenchmark {
+  @Param({"platform", "virtual"})
+  String threads;
+
+  @Param({"1000", "10000"})
+  int concurrency;
+
+  private final ProductHandlers handlers = new HandlersImpl();
+  private ExecutorService executor;
+
+  @Setup(Level.Iteration)
+  public void setup() throws ReflectiveOperationException {
+    // the virtual thread executor is looked up reflectively to compile against the Java 17 target
+    executor =
+        threads.equals("virtual")
+            ? (ExecutorService)
+                Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+            : Executors.newFixedThreadPool(concurrency);
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  @Benchmark
+  public void fulfillProducts() throws Exception {
+    var results = new ArrayList<Future<?>>(concurrency);
+    for (var i = 0; i < concurrency; i++) {
+      results.add(executor.submit(handlers::fulfillProduct));
+    }
+    for (var result : results) {
+      result.get();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.app.workers;
+
+import io.temporal.spring.boot.WorkerOptionsCustomizer;
+import io.temporal.worker.WorkerOptions;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TemporalOptionsConfiguration {
+  Logger logger = LoggerFactory.getLogger(TemporalOptionsConfiguration.class);
+
+  // Task Queues listed in `virtual-threads.task-queues` run their pollers and task executors on
+  // virtual threads (requires a Java 21+ runtime); Workflow code stays on the `WorkerFactory`'s
+  // workflow threads. A blocking Activity like `fulfillProduct` then parks a virtual thread
+  // instead of holding a platform thread, so raise the Worker's
+  // `max-concurrent-activity-task-executors` to match what the downstream can take.
+  @Bean
+  public WorkerOptionsCustomizer workerCustomizer(
+      @Value("${spring.curriculum.virtual-threads.task-queues:}")
+          List<String> virtualThreadTaskQueues) {
+    return new WorkerOptionsCustomizer() {
+      @Nonnull
+      @Override
+      public WorkerOptions.Builder customize(
+          @Nonnull WorkerOptions.Builder optionsBuilder,
+          @Nonnull String workerName,
+          @Nonnull String taskQueue) {
+        if (virtualThreadTaskQueues.contains(taskQueue)) {
+          logger.info("Running {} tasks on virtual threads", taskQueue);
+          optionsBuilder.setUsingVirtualThreads(true);
+        }
+        return optionsBuilder;
+      }
+    };
+  }
+}
@@ -24,10 +24,15 @@
 
 package io.temporal.onboardings.api;
 
+import io.temporal.onboardings.domain.converters.ConvertersConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({
+  ConvertersConfiguration.class,
+})
 public class Application {
 
   public static void main(String[] args) {
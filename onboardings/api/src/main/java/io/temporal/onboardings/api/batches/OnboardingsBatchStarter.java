@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.batches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.onboardings.api.messages.OnboardingsBatchResultV2;
+import io.temporal.onboardings.api.messages.OnboardingsBatchStatusV2;
+import io.temporal.onboardings.api.messages.OnboardingsPutV2;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Starts the `EntityOnboarding`s of NDJSON batch uploads (one `OnboardingsPutV2` per line),
+// writing one `OnboardingsBatchResultV2` line per start as it finishes, so results may arrive
+// out of line order.
+// Every upload shares one pool of `max-in-flight` start threads and permits. An upload stops
+// reading its body while all permits are taken, so memory stays flat regardless of upload size
+// and concurrent uploads together never hold more than `max-in-flight` starts.
+@Component
+public class OnboardingsBatchStarter implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(OnboardingsBatchStarter.class);
+
+  private final WorkflowClient temporalClient;
+  private final ObjectMapper objectMapper;
+  private final WorkflowOptions options;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final ExecutorService executor;
+
+  public OnboardingsBatchStarter(
+      WorkflowClient temporalClient,
+      ObjectMapper objectMapper,
+      @Value("${spring.curriculum.task-queue}") String taskQueue,
+      @Value("${spring.curriculum.batch.max-in-flight:64}") int maxInFlight) {
+    this.temporalClient = temporalClient;
+    this.objectMapper = objectMapper;
+    // the same options are shared by every line; only the WorkflowId varies
+    this.options =
+        WorkflowOptions.newBuilder()
+            .setTaskQueue(taskQueue)
+            .setRetryOptions(null)
+            .setWorkflowIdReusePolicy(
+                WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+            .build();
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.executor = Executors.newFixedThreadPool(maxInFlight);
+  }
+
+  public void start(InputStream body, OutputStream out) throws IOException {
+    // this upload's own starts, so it can wait for its tail without counting other uploads'
+    var mine = new Semaphore(maxInFlight);
+    var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    try {
+      String line;
+      long lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        final long n = lineNumber;
+        final String json = line;
+        // blocks reading the upload until a start slot frees up
+        mine.acquire();
+        try {
+          inFlight.acquire();
+        } catch (InterruptedException e) {
+          mine.release();
+          throw e;
+        }
+        executor.execute(
+            () -> {
+              try {
+                writeResult(out, startOnboardEntity(n, json));
+              } finally {
+                inFlight.release();
+                mine.release();
+              }
+            });
+      }
+      // wait for the tail of the upload to finish before closing the response
+      mine.acquire(maxInFlight);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while starting onboardings");
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private OnboardingsBatchResultV2 startOnboardEntity(long line, String json) {
+    OnboardingsPutV2 params;
+    try {
+      params = objectMapper.readValue(json, OnboardingsPutV2.class);
+    } catch (IOException e) {
+      return new OnboardingsBatchResultV2(
+          line, null, OnboardingsBatchStatusV2.FAILED, "Malformed JSON: " + e.getMessage());
+    }
+    if (params.id() == null || params.id().isEmpty()) {
+      return new OnboardingsBatchResultV2(
+          line, null, OnboardingsBatchStatusV2.FAILED, "id is required");
+    }
+    var workflowStub =
+        temporalClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder(options).setWorkflowId(params.id()).build());
+    var wfArgs =
+        new OnboardEntityRequest(
+            params.id(), params.value(), 7 * 86400, null, params.shouldSkipApproval());
+    try {
+      WorkflowClient.start(workflowStub::execute, wfArgs);
+      return new OnboardingsBatchResultV2(
+          line, params.id(), OnboardingsBatchStatusV2.STARTED, null);
+    } catch (WorkflowExecutionAlreadyStarted was) {
+      return new OnboardingsBatchResultV2(
+          line, params.id(), OnboardingsBatchStatusV2.ALREADY_STARTED, null);
+    } catch (Exception e) {
+      logger.warn("Failed to start onboarding {}", params.id(), e);
+      return new OnboardingsBatchResultV2(
+          line, params.id(), OnboardingsBatchStatusV2.FAILED, e.getMessage());
+    }
+  }
+
+  private void writeResult(OutputStream out, OnboardingsBatchResultV2 result) {
+    try {
+      var bytes = objectMapper.writeValueAsBytes(result);
+      synchronized (out) {
+        out.write(bytes);
+        out.write('\n');
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the client went away; remaining starts still run but their results are dropped
+      logger.debug("Failed to write batch result for line {}", result.line(), e);
+    }
+  }
+}
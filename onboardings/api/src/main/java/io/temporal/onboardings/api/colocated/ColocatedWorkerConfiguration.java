@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.colocated;
+
+import io.temporal.onboardings.domain.DomainConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+// Hosts an `onboardings` Worker inside the API process (see `application-colocated.yaml`).
+// Starts that skip approval can then be handed to this Worker in the start response
+// (eager Workflow start), skipping the Task Queue poll for the first Workflow Task.
+// Eager Activity dispatch (on by default in the SDK) only covers Activities scheduled on this
+// Worker's own Task Queue; CRM and notification Activities are routed to their own Task Queues
+// and are still run by the dedicated Workers.
+// `DomainConfig` builds the Activity options (Task Queue routing, async CRM timeouts) from the
+// `spring.curriculum.task-queues.*` and `spring.curriculum.crm.async.*` properties. The API does
+// not load the Workers' configuration, so `application-colocated.yaml` repeats them; keep the
+// two in step or Workflows will schedule Activities differently depending on which process
+// runs their Workflow Task.
+@Configuration
+@Profile("colocated")
+@Import(DomainConfig.class)
+public class ColocatedWorkerConfiguration {}
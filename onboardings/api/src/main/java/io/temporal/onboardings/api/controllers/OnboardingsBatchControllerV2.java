@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.controllers;
+
+import io.temporal.onboardings.api.batches.OnboardingsBatchStarter;
+import java.io.InputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Bulk variant of the V2 `PUT` for large imports.
+// The request body is NDJSON (one `OnboardingsPutV2` per line) and the response is NDJSON
+// (one `OnboardingsBatchResultV2` per line). See `OnboardingsBatchStarter` for how lines are
+// started and how uploads share the `max-in-flight` starts.
+@RestController
+@RequestMapping("/api/v2")
+public class OnboardingsBatchControllerV2 {
+  @Autowired OnboardingsBatchStarter batchStarter;
+
+  @PostMapping(
+      value = "/onboardings:batch",
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_NDJSON_VALUE})
+  ResponseEntity<StreamingResponseBody> onboardingsBatch(InputStream body) {
+    StreamingResponseBody stream = out -> batchStarter.start(body, out);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+  }
+}
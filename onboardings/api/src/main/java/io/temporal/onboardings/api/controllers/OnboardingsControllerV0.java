@@ -24,22 +24,27 @@
 
 package io.temporal.onboardings.api.controllers;
 
-import io.temporal.api.common.v1.Payload;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.temporal.api.common.v1.Payloads;
 import io.temporal.api.common.v1.WorkflowExecution;
 import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
 import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
 import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionResponse;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryResponse;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowExecutionAlreadyStarted;
 import io.temporal.client.WorkflowOptions;
 import io.temporal.client.WorkflowStub;
 import io.temporal.common.RetryOptions;
-import io.temporal.common.converter.DefaultDataConverter;
 import io.temporal.onboardings.api.messages.OnboardingsGetV0;
 import io.temporal.onboardings.api.messages.OnboardingsPutV0;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
 import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,27 +74,60 @@ public class OnboardingsControllerV0 {
     // This module will not overly explain this interaction but will be valuable later when we
     // want to reason about our Executions with more detail.
     var svc = this.temporalClient.getWorkflowServiceStubs();
+    var namespace = this.temporalClient.getOptions().getNamespace();
 
     WorkflowExecution execution = WorkflowExecution.newBuilder().setWorkflowId(id).build();
-    DescribeWorkflowExecutionResponse desc =
-        svc.blockingStub()
+    // The describe and the history read do not depend on each other so we issue both
+    // on the future stub before waiting on either.
+    ListenableFuture<DescribeWorkflowExecutionResponse> describe =
+        svc.futureStub()
             .describeWorkflowExecution(
                 DescribeWorkflowExecutionRequest.newBuilder()
                     .setExecution(execution)
-                    .setNamespace("default")
+                    .setNamespace(namespace)
                     .build());
+    // We only need event 0 (`WorkflowExecutionStarted`) so ask for a single-event page
+    // instead of paging through the entire history. This keeps the cost of this GET
+    // constant no matter how long the history grows.
+    ListenableFuture<GetWorkflowExecutionHistoryResponse> head =
+        svc.futureStub()
+            .getWorkflowExecutionHistory(
+                GetWorkflowExecutionHistoryRequest.newBuilder()
+                    .setExecution(execution)
+                    .setNamespace(namespace)
+                    .setMaximumPageSize(1)
+                    .build());
+    DescribeWorkflowExecutionResponse desc;
+    GetWorkflowExecutionHistoryResponse history;
+    try {
+      desc = describe.get();
+      history = head.get();
+    } catch (ExecutionException e) {
+      describe.cancel(true);
+      head.cancel(true);
+      if (e.getCause() instanceof StatusRuntimeException sre
+          && sre.getStatus().getCode() == Status.Code.NOT_FOUND) {
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
     var status = desc.getWorkflowExecutionInfo().getStatus();
-    var history = this.temporalClient.fetchHistory(id);
+    if (history.getHistory().getEventsCount() == 0) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
     Payloads payloads =
         history.getHistory().getEvents(0).getWorkflowExecutionStartedEventAttributes().getInput();
-    OnboardEntityRequest sentRequest = null;
-    for (Payload payload : payloads.getPayloadsList()) {
-      // using default data converter..assumes MigrateableWorkflowParams type
-      // note if you use custom data converter you would need use it instead of default
-      sentRequest =
-          DefaultDataConverter.newDefaultInstance()
-              .fromPayload(payload, OnboardEntityRequest.class, OnboardEntityRequest.class);
-    }
+    // use the DataConverter the client was configured with (rather than a new default instance
+    // per payload) so that any custom converter or codec is honored here too
+    OnboardEntityRequest sentRequest =
+        this.temporalClient
+            .getOptions()
+            .getDataConverter()
+            .fromPayloads(
+                0, Optional.of(payloads), OnboardEntityRequest.class, OnboardEntityRequest.class);
     var get = new OnboardingsGetV0(sentRequest.id(), status.toString(), sentRequest);
     return ResponseEntity.ok(get);
   }
@@ -31,6 +31,8 @@ import io.temporal.client.WorkflowNotFoundException;
 import io.temporal.client.WorkflowOptions;
 import io.temporal.onboardings.api.messages.OnboardingsGetV1;
 import io.temporal.onboardings.api.messages.OnboardingsPutV1;
+import io.temporal.onboardings.api.queries.EntityOnboardingStateQueries;
+import io.temporal.onboardings.api.streams.EntityOnboardingStateWatchers;
 import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
@@ -46,6 +48,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/onboardings")
@@ -53,6 +56,8 @@ public class OnboardingsControllerV1 {
 
   Logger logger = LoggerFactory.getLogger(OnboardingsControllerV1.class);
   @Autowired WorkflowClient temporalClient;
+  @Autowired EntityOnboardingStateQueries stateQueries;
+  @Autowired EntityOnboardingStateWatchers stateWatchers;
 
   @Value("${spring.curriculum.task-queue}")
   String taskQueue;
@@ -60,8 +65,7 @@ public class OnboardingsControllerV1 {
   @GetMapping("/{id}")
   public ResponseEntity<OnboardingsGetV1> onboardingGet(@PathVariable("id") String id) {
     try {
-      var workflowStub = temporalClient.newWorkflowStub(EntityOnboarding.class, id);
-      var state = workflowStub.getState();
+      var state = stateQueries.getState(id);
       return new ResponseEntity<>(
           new OnboardingsGetV1(
               state.id(),
@@ -74,6 +78,12 @@ public class OnboardingsControllerV1 {
     }
   }
 
+  // Server-Sent Events alternative to polling `GET /{id}`.
+  @GetMapping(value = "/{id}/events", produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+  public SseEmitter onboardingEvents(@PathVariable("id") String id) {
+    return stateWatchers.subscribe(id);
+  }
+
   @PutMapping(
       value = "/{id}",
       consumes = {MediaType.APPLICATION_JSON_VALUE},
@@ -96,6 +106,7 @@ public class OnboardingsControllerV1 {
       } else {
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
       }
+      stateQueries.invalidate(id);
     } catch (WorkflowNotFoundException e) {
       // you can receive this if the Workflow has Closed or simply is not there
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
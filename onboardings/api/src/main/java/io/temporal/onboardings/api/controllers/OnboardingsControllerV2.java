@@ -24,19 +24,37 @@
 
 package io.temporal.onboardings.api.controllers;
 
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.api.common.v1.Payload;
 import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsRequest;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowExecutionAlreadyStarted;
 import io.temporal.client.WorkflowNotFoundException;
 import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.client.WorkflowUpdateException;
+import io.temporal.common.SearchAttributeKey;
+import io.temporal.common.converter.DefaultDataConverter;
 import io.temporal.onboardings.api.messages.OnboardingsGetV2;
+import io.temporal.onboardings.api.messages.OnboardingsListItemV2;
+import io.temporal.onboardings.api.messages.OnboardingsListV2;
 import io.temporal.onboardings.api.messages.OnboardingsPutV2;
+import io.temporal.onboardings.api.queries.EntityOnboardingStateQueries;
 import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
 import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
 import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboardingSearchAttributes;
 import java.net.URI;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,15 +71,62 @@ public class OnboardingsControllerV2 {
 
   Logger logger = LoggerFactory.getLogger(OnboardingsControllerV2.class);
   @Autowired WorkflowClient temporalClient;
+  @Autowired EntityOnboardingStateQueries stateQueries;
+  @Autowired MeterRegistry meterRegistry;
+
+  private static final int MAX_PAGE_SIZE = 1000;
 
   @Value("${spring.curriculum.task-queue}")
   String taskQueue;
 
+  @Value("${spring.curriculum.eager-start.enabled:false}")
+  boolean eagerStart;
+
+  // Pages through Visibility rather than querying each execution.
+  // `pageToken` is the opaque `nextPageToken` from the previous page.
+  @GetMapping
+  public ResponseEntity<OnboardingsListV2> onboardingsList(
+      @RequestParam(value = "status", required = false) ApprovalStatus status,
+      @RequestParam(value = "pageToken", required = false) String pageToken,
+      @RequestParam(value = "pageSize", defaultValue = "50") int pageSize) {
+    var query = new StringBuilder("WorkflowType = 'EntityOnboarding'");
+    if (status != null) {
+      query.append(
+          String.format(
+              " AND %s = '%s'",
+              EntityOnboardingSearchAttributes.APPROVAL_STATUS.getName(), status.name()));
+    }
+    var request =
+        ListWorkflowExecutionsRequest.newBuilder()
+            .setNamespace(temporalClient.getOptions().getNamespace())
+            .setQuery(query.toString())
+            .setPageSize(Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE)));
+    if (pageToken != null && !pageToken.isEmpty()) {
+      try {
+        request.setNextPageToken(ByteString.copyFrom(Base64.getUrlDecoder().decode(pageToken)));
+      } catch (IllegalArgumentException e) {
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+      }
+    }
+    var response =
+        temporalClient
+            .getWorkflowServiceStubs()
+            .blockingStub()
+            .listWorkflowExecutions(request.build());
+    var onboardings = response.getExecutionsList().stream().map(this::toListItem).toList();
+    var nextPageToken =
+        response.getNextPageToken().isEmpty()
+            ? null
+            : Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(response.getNextPageToken().toByteArray());
+    return new ResponseEntity<>(new OnboardingsListV2(onboardings, nextPageToken), HttpStatus.OK);
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<OnboardingsGetV2> onboardingGet(@PathVariable("id") String id) {
     try {
-      var workflowStub = temporalClient.newWorkflowStub(EntityOnboarding.class, id);
-      var state = workflowStub.getState();
+      var state = stateQueries.getState(id);
       return new ResponseEntity<>(
           new OnboardingsGetV2(
               state.id(),
@@ -79,32 +144,74 @@ public class OnboardingsControllerV2 {
       value = "/{id}",
       consumes = {MediaType.APPLICATION_JSON_VALUE},
       produces = {MediaType.APPLICATION_JSON_VALUE})
-  ResponseEntity<String> onboardingPut(
-      @PathVariable String id, @RequestBody OnboardingsPutV2 params) {
+  ResponseEntity<?> onboardingPut(@PathVariable String id, @RequestBody OnboardingsPutV2 params) {
     // poor man's inspection to decide whether to update the entity or start a workflow
     // we could as easily check for WF existence first to decide which is best action to take
-    if (params.approval().approvalStatus().equals(ApprovalStatus.PENDING)) {
+    if (params.shouldSkipApproval()
+        || params.approval().approvalStatus().equals(ApprovalStatus.PENDING)) {
       return startOnboardEntity(id, params);
     }
 
-    // Signal our onboarding with the appropriate ApprovalStatus
+    // Update our onboarding with the appropriate ApprovalStatus.
+    // Unlike a Signal, an Update waits for the Workflow to apply the change and hands back
+    // the resulting state, so the caller does not need a follow-up GET.
     try {
       var wfStub = temporalClient.newWorkflowStub(EntityOnboarding.class, id);
+      EntityOnboardingState state;
       if (params.approval().approvalStatus().equals(ApprovalStatus.APPROVED)) {
-        wfStub.approve(new ApproveEntityRequest(params.approval().comment()));
+        state = wfStub.approveEntity(new ApproveEntityRequest(params.approval().comment()));
       } else if (params.approval().approvalStatus().equals(ApprovalStatus.REJECTED)) {
-        wfStub.reject(new RejectEntityRequest(params.approval().comment()));
+        state = wfStub.rejectEntity(new RejectEntityRequest(params.approval().comment()));
       } else {
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
       }
+      stateQueries.invalidate(id);
+      return new ResponseEntity<>(
+          new OnboardingsGetV2(
+              state.id(),
+              state.currentValue(),
+              state.approval().approvalStatus().name(),
+              state.approval().comment(),
+              "MISSING_EMAIL"),
+          HttpStatus.OK);
     } catch (WorkflowNotFoundException e) {
       // you can receive this if the Workflow has Closed or simply is not there
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    } catch (WorkflowUpdateException e) {
+      // the validator rejected the Update, eg the entity is no longer PENDING
+      return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
+  }
+
+  private OnboardingsListItemV2 toListItem(WorkflowExecutionInfo info) {
+    var searchAttributes = info.getSearchAttributes().getIndexedFieldsMap();
+    var approvalStatus =
+        searchAttribute(
+            searchAttributes, EntityOnboardingSearchAttributes.APPROVAL_STATUS, String.class);
+    var hasDeputyOwner =
+        searchAttribute(
+            searchAttributes, EntityOnboardingSearchAttributes.HAS_DEPUTY_OWNER, Boolean.class);
+    return new OnboardingsListItemV2(
+        info.getExecution().getWorkflowId(),
+        approvalStatus,
+        Boolean.TRUE.equals(hasDeputyOwner),
+        info.getStatus().name());
+  }
+
+  private static <T> T searchAttribute(
+      Map<String, Payload> searchAttributes, SearchAttributeKey<T> key, Class<T> type) {
+    var payload = searchAttributes.get(key.getName());
+    if (payload == null) {
+      return null;
     }
-    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    // Search Attributes are always encoded with the standard converter (never a custom codec)
+    return DefaultDataConverter.STANDARD_INSTANCE.fromPayload(payload, type, type);
   }
 
   private ResponseEntity<String> startOnboardEntity(String id, OnboardingsPutV2 params) {
+    // Nothing waits on a human when approval is skipped, so a co-located Worker can take the
+    // first Workflow Task (and then the Activity) straight from the start response.
+    var eager = eagerStart && params.shouldSkipApproval();
     final WorkflowOptions options =
         WorkflowOptions.newBuilder()
             .setTaskQueue(taskQueue)
@@ -112,13 +219,20 @@ public class OnboardingsControllerV2 {
             .setRetryOptions(null)
             .setWorkflowIdReusePolicy(
                 WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+            .setDisableEagerExecution(!eager)
             .build();
     var workflowStub = temporalClient.newWorkflowStub(EntityOnboarding.class, options);
 
-    var wfArgs = new OnboardEntityRequest(params.id(), params.value(), 7 * 86400, null, false);
+    var wfArgs =
+        new OnboardEntityRequest(
+            params.id(), params.value(), 7 * 86400, null, params.shouldSkipApproval());
     // Start the workflow execution.
     try {
+      var startedNanos = System.nanoTime();
       var run = WorkflowClient.start(workflowStub::execute, wfArgs);
+      if (params.shouldSkipApproval()) {
+        recordCompletionLatency(workflowStub, eager, startedNanos);
+      }
       var headers = new HttpHeaders();
       headers.setLocation(URI.create(String.format("/api/v2/onboardings/%s", id)));
       return new ResponseEntity<>(HttpStatus.ACCEPTED);
@@ -129,4 +243,23 @@ public class OnboardingsControllerV2 {
       return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
   }
+
+  // Only onboardings that skip approval are timed: the others mostly measure how long
+  // someone took to approve them.
+  private void recordCompletionLatency(
+      EntityOnboarding workflowStub, boolean eager, long startedNanos) {
+    var timer =
+        Timer.builder("onboardings.start.completion")
+            .description("Time from starting a skip-approval onboarding until it closes")
+            .tag("eager", String.valueOf(eager))
+            .register(meterRegistry);
+    WorkflowStub.fromTyped(workflowStub)
+        .getResultAsync(Void.class)
+        .whenComplete(
+            (ignored, e) -> {
+              if (e == null) {
+                timer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+              }
+            });
+  }
 }
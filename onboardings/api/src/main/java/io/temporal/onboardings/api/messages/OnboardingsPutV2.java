@@ -26,4 +26,10 @@ package io.temporal.onboardings.api.messages;
 
 import io.temporal.onboardings.domain.messages.values.Approval;
 
-public record OnboardingsPutV2(String id, String value, Approval approval, String email) {}
+// `skipApproval` onboards the entity straight away; omit it to wait for an approval as usual
+public record OnboardingsPutV2(
+    String id, String value, Approval approval, String email, Boolean skipApproval) {
+  public boolean shouldSkipApproval() {
+    return Boolean.TRUE.equals(skipApproval);
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.queries;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.enums.v1.QueryRejectCondition;
+import io.temporal.api.enums.v1.WorkflowExecutionStatus;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowNotFoundException;
+import io.temporal.client.WorkflowQueryRejectedException;
+import io.temporal.onboardings.api.snapshots.EntityOnboardingSnapshot;
+import io.temporal.onboardings.api.snapshots.EntityOnboardingSnapshotStore;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Every `getState` call becomes a Query Task that a Worker has to answer (and possibly replay
+// for). Dashboards tend to poll the same entity from many places at once, so concurrent reads
+// for the same WorkflowId share a single in-flight Query here.
+// An optional short-lived result cache (`spring.curriculum.queries.cache-ttl`) absorbs
+// repeated polls. Hits, misses and coalesced reads are exported as the
+// `onboardings.queries.state` counter.
+// Closed onboardings never change, so once one is seen closed its final state is written to the
+// `EntityOnboardingSnapshotStore` and later reads are served from there without a Worker replay.
+// The snapshot is taken by the first read after the close, which still pays for that one replay.
+// `EntityOnboardingStateWatchers` makes that read as soon as it sees the close, so onboardings
+// that are being watched are snapshotted before any GET arrives.
+// Open onboardings cost a single Query: it is sent with `QUERY_REJECT_CONDITION_NOT_OPEN`, so the
+// Temporal service itself turns it away once the onboarding has closed, and only then do we
+// describe the execution and take the snapshot.
+@Component
+public class EntityOnboardingStateQueries {
+  private final WorkflowClient temporalClient;
+  private final WorkflowClient openOnlyClient;
+  private final EntityOnboardingSnapshotStore snapshots;
+  private final Duration cacheTtl;
+  private final int cacheMaxEntries;
+  private final ConcurrentHashMap<String, InFlightQuery> inFlight = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CachedState> cache = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter coalesced;
+
+  @Autowired
+  public EntityOnboardingStateQueries(
+      WorkflowClient temporalClient,
+      EntityOnboardingSnapshotStore snapshots,
+      MeterRegistry meterRegistry,
+      @Value("${spring.curriculum.queries.cache-ttl:0s}") Duration cacheTtl,
+      @Value("${spring.curriculum.queries.cache-max-entries:10000}") int cacheMaxEntries) {
+    this(
+        temporalClient,
+        WorkflowClient.newInstance(
+            temporalClient.getWorkflowServiceStubs(),
+            WorkflowClientOptions.newBuilder(temporalClient.getOptions())
+                .setQueryRejectCondition(QueryRejectCondition.QUERY_REJECT_CONDITION_NOT_OPEN)
+                .build()),
+        snapshots,
+        meterRegistry,
+        cacheTtl,
+        cacheMaxEntries);
+  }
+
+  // `openOnlyClient` sends the same Queries with `QUERY_REJECT_CONDITION_NOT_OPEN`
+  EntityOnboardingStateQueries(
+      WorkflowClient temporalClient,
+      WorkflowClient openOnlyClient,
+      EntityOnboardingSnapshotStore snapshots,
+      MeterRegistry meterRegistry,
+      Duration cacheTtl,
+      int cacheMaxEntries) {
+    this.temporalClient = temporalClient;
+    this.openOnlyClient = openOnlyClient;
+    this.snapshots = snapshots;
+    this.cacheTtl = cacheTtl;
+    this.cacheMaxEntries = cacheMaxEntries;
+    this.hits = counter(meterRegistry, "hit");
+    this.misses = counter(meterRegistry, "miss");
+    this.coalesced = counter(meterRegistry, "coalesced");
+  }
+
+  public EntityOnboardingState getState(String id) {
+    if (isCacheEnabled()) {
+      var cached = cache.get(id);
+      if (cached != null && !cached.isExpired(System.nanoTime())) {
+        hits.increment();
+        return cached.state();
+      }
+      misses.increment();
+    }
+
+    var query = new InFlightQuery();
+    var existing = inFlight.putIfAbsent(id, query);
+    if (existing != null) {
+      coalesced.increment();
+      return await(existing.result);
+    }
+    try {
+      var state = load(id);
+      cache(id, state, query);
+      query.result.complete(state);
+      return state;
+    } catch (RuntimeException e) {
+      query.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(id, query);
+    }
+  }
+
+  // Always sends its own Query (or reads the snapshot), bypassing both the cache and any Query
+  // already in flight. For callers that must observe a change they know has just happened.
+  public EntityOnboardingState loadState(String id) {
+    return load(id);
+  }
+
+  private EntityOnboardingState load(String id) {
+    if (!snapshots.isEnabled()) {
+      return queryState(temporalClient, id);
+    }
+    // A completed onboarding can never be started again under its WorkflowId, so its snapshot
+    // is served without asking Temporal at all.
+    var snapshot = snapshots.find(id);
+    if (snapshot.isPresent() && isCompleted(snapshot.get())) {
+      return snapshot.get().state();
+    }
+    try {
+      return queryState(openOnlyClient, id);
+    } catch (WorkflowQueryRejectedException e) {
+      // closed; failed onboardings may be started again, so check which run we have
+    }
+    // Describe is answered by the Temporal service alone, so it is much cheaper than a Query
+    // against a closed Workflow (which makes a Worker replay the whole history).
+    var info = describe(id);
+    if (!isClosed(info.getStatus())) {
+      // started again (or reset) since the Query was rejected
+      return queryState(temporalClient, id);
+    }
+    var runId = info.getExecution().getRunId();
+    if (snapshot.isPresent() && snapshot.get().runId().equals(runId)) {
+      return snapshot.get().state();
+    }
+    var state = queryState(temporalClient, id);
+    snapshots.append(new EntityOnboardingSnapshot(id, runId, info.getStatus().name(), state));
+    return state;
+  }
+
+  private static EntityOnboardingState queryState(WorkflowClient client, String id) {
+    return client.newWorkflowStub(EntityOnboarding.class, id).getState();
+  }
+
+  private WorkflowExecutionInfo describe(String id) {
+    var execution = WorkflowExecution.newBuilder().setWorkflowId(id).build();
+    try {
+      return temporalClient
+          .getWorkflowServiceStubs()
+          .blockingStub()
+          .describeWorkflowExecution(
+              DescribeWorkflowExecutionRequest.newBuilder()
+                  .setNamespace(temporalClient.getOptions().getNamespace())
+                  .setExecution(execution)
+                  .build())
+          .getWorkflowExecutionInfo();
+    } catch (StatusRuntimeException e) {
+      if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+        throw new WorkflowNotFoundException(execution, null, e);
+      }
+      throw e;
+    }
+  }
+
+  private static boolean isCompleted(EntityOnboardingSnapshot snapshot) {
+    return WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_COMPLETED
+        .name()
+        .equals(snapshot.executionStatus());
+  }
+
+  private static boolean isClosed(WorkflowExecutionStatus status) {
+    return switch (status) {
+      case WORKFLOW_EXECUTION_STATUS_COMPLETED,
+          WORKFLOW_EXECUTION_STATUS_FAILED,
+          WORKFLOW_EXECUTION_STATUS_CANCELED,
+          WORKFLOW_EXECUTION_STATUS_TERMINATED,
+          WORKFLOW_EXECUTION_STATUS_TIMED_OUT -> true;
+      default -> false;
+    };
+  }
+
+  // Call this after sending a command to the Workflow so the next read is not served stale.
+  // A Query already in flight may have been answered before the command landed, so it is
+  // marked stale (before the cache is cleared) and its result is not cached. It is also
+  // detached, so reads that start after this call send a new Query and see the command; only
+  // reads that had already joined it get its result.
+  public void invalidate(String id) {
+    var query = inFlight.get(id);
+    if (query != null) {
+      query.generation.incrementAndGet();
+      inFlight.remove(id, query);
+    }
+    cache.remove(id);
+  }
+
+  private boolean isCacheEnabled() {
+    return cacheTtl.isPositive();
+  }
+
+  private void cache(String id, EntityOnboardingState state, InFlightQuery query) {
+    if (!isCacheEnabled() || query.isStale()) {
+      return;
+    }
+    var now = System.nanoTime();
+    if (cache.size() >= cacheMaxEntries) {
+      cache.values().removeIf(c -> c.isExpired(now));
+      if (cache.size() >= cacheMaxEntries) {
+        return;
+      }
+    }
+    var cached = new CachedState(state, now + cacheTtl.toNanos());
+    cache.put(id, cached);
+    // `invalidate` may have run between the check above and the put
+    if (query.isStale()) {
+      cache.remove(id, cached);
+    }
+  }
+
+  private static EntityOnboardingState await(CompletableFuture<EntityOnboardingState> query) {
+    try {
+      return query.join();
+    } catch (CompletionException e) {
+      // surface the same exception (eg `WorkflowNotFoundException`) the leader saw
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("onboardings.queries.state")
+        .description("EntityOnboarding getState reads by result")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private static class InFlightQuery {
+    final CompletableFuture<EntityOnboardingState> result = new CompletableFuture<>();
+    // bumped by `invalidate` while this Query is loading
+    final AtomicLong generation = new AtomicLong();
+
+    boolean isStale() {
+      return generation.get() != 0;
+    }
+  }
+
+  private record CachedState(EntityOnboardingState state, long expiresAtNanos) {
+    boolean isExpired(long now) {
+      return now - expiresAtNanos >= 0;
+    }
+  }
+}
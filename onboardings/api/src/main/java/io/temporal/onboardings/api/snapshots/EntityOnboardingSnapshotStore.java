@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.snapshots;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Local, append-only store of terminal `EntityOnboardingState` snapshots.
+// Snapshots are appended as NDJSON lines and an in-memory index keeps the offset of the latest
+// line per WorkflowId, so a lookup is a single positional read no matter how large the file is.
+// The index is rebuilt by scanning the file on startup; a torn trailing line is truncated.
+@Component
+public class EntityOnboardingSnapshotStore implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(EntityOnboardingSnapshotStore.class);
+
+  private final ObjectMapper objectMapper;
+  private final boolean enabled;
+  private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+  private FileChannel channel;
+
+  public EntityOnboardingSnapshotStore(
+      ObjectMapper objectMapper,
+      @Value("${spring.curriculum.snapshots.enabled:true}") boolean enabled,
+      @Value("${spring.curriculum.snapshots.path:${java.io.tmpdir}/onboardings/snapshots.ndjson}")
+          Path path)
+      throws IOException {
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    if (enabled) {
+      Files.createDirectories(path.toAbsolutePath().getParent());
+      this.channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      loadIndex();
+      logger.info("Loaded {} onboarding snapshots from {}", index.size(), path);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Optional<EntityOnboardingSnapshot> find(String workflowId) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    var location = index.get(workflowId);
+    if (location == null) {
+      return Optional.empty();
+    }
+    try {
+      var buffer = ByteBuffer.allocate(location.length());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of snapshot store");
+        }
+      }
+      return Optional.of(
+          objectMapper.readValue(buffer.array(), EntityOnboardingSnapshot.class));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void append(EntityOnboardingSnapshot snapshot) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      var bytes = objectMapper.writeValueAsBytes(snapshot);
+      var line = ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) '\n').flip();
+      synchronized (this) {
+        var offset = channel.size();
+        while (line.hasRemaining()) {
+          channel.write(line, offset + line.position());
+        }
+        index.put(snapshot.workflowId(), new Location(offset, bytes.length));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void loadIndex() throws IOException {
+    var buffer = ByteBuffer.allocate(64 * 1024);
+    var line = new ByteArrayOutputStream();
+    long position = 0;
+    long lineStart = 0;
+    long validEnd = 0;
+    while (channel.read(buffer.clear(), position) > 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        var b = buffer.get();
+        position++;
+        if (b != '\n') {
+          line.write(b);
+          continue;
+        }
+        try {
+          var snapshot =
+              objectMapper.readValue(line.toByteArray(), EntityOnboardingSnapshot.class);
+          index.put(snapshot.workflowId(), new Location(lineStart, line.size()));
+          validEnd = position;
+        } catch (IOException e) {
+          logger.warn("Skipping unreadable snapshot at offset {}", lineStart, e);
+          validEnd = position;
+        }
+        line.reset();
+        lineStart = position;
+      }
+    }
+    if (validEnd < channel.size()) {
+      // a partial line from an interrupted append
+      channel.truncate(validEnd);
+    }
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private record Location(long offset, int length) {}
+}
@@ -0,0 +1,312 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.streams;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.enums.v1.HistoryEventFilterType;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryResponse;
+import io.temporal.client.WorkflowClient;
+import io.temporal.onboardings.api.messages.OnboardingsGetV1;
+import io.temporal.onboardings.api.queries.EntityOnboardingStateQueries;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Pushes `EntityOnboardingState` transitions to Server-Sent Events subscribers.
+// There is at most one upstream watcher per WorkflowId no matter how many subscribers it has.
+// The watcher long-polls the Workflow history and only issues a `getState` Query after a
+// Workflow Task has completed, so the Query load follows the number of state changes rather
+// than how often consoles would otherwise poll.
+// Each watcher holds a thread for its long-poll, so at most `spring.curriculum.streams.max-watches`
+// WorkflowIds are watched at once; subscribing to another one answers 503 until one closes.
+// Events:
+// * `state` - the current state (sent on subscribe and whenever it changes)
+// * `continued-as-new` - the execution continued as a new run; the watcher follows it
+// * `completed` - the execution closed; this is the last event before the stream ends
+@Component
+public class EntityOnboardingStateWatchers implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(EntityOnboardingStateWatchers.class);
+
+  private final WorkflowClient temporalClient;
+  private final EntityOnboardingStateQueries stateQueries;
+  private final Duration emitterTimeout;
+  private final ThreadPoolExecutor executor;
+  private final ConcurrentHashMap<String, Watch> watches = new ConcurrentHashMap<>();
+
+  public EntityOnboardingStateWatchers(
+      WorkflowClient temporalClient,
+      EntityOnboardingStateQueries stateQueries,
+      @Value("${spring.curriculum.streams.emitter-timeout:30m}") Duration emitterTimeout,
+      @Value("${spring.curriculum.streams.max-watches:256}") int maxWatches) {
+    this.temporalClient = temporalClient;
+    this.stateQueries = stateQueries;
+    this.emitterTimeout = emitterTimeout;
+    // no queue: a watch either gets a thread now or is refused
+    this.executor =
+        new ThreadPoolExecutor(
+            maxWatches, maxWatches, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public SseEmitter subscribe(String id) {
+    var emitter = new SseEmitter(emitterTimeout.toMillis());
+    emitter.onCompletion(() -> unsubscribe(id, emitter));
+    emitter.onTimeout(() -> unsubscribe(id, emitter));
+    emitter.onError(e -> unsubscribe(id, emitter));
+    return subscribe(id, emitter);
+  }
+
+  SseEmitter subscribe(String id, SseEmitter emitter) {
+    while (true) {
+      var watch =
+          watches.compute(
+              id,
+              (key, existing) -> existing == null || existing.stopped ? new Watch(id) : existing);
+      // start the watcher and greet the subscriber outside `compute`, which must not block
+      if (watch.claimStart()) {
+        try {
+          executor.execute(watch);
+        } catch (RejectedExecutionException e) {
+          watches.remove(id, watch);
+          watch.stop().forEach(s -> s.completeWithError(e));
+          throw new ResponseStatusException(
+              HttpStatus.SERVICE_UNAVAILABLE, "Too many onboardings are being watched", e);
+        }
+      }
+      // The watch may have stopped since `compute` returned it and would then never send to
+      // this subscriber. A fresh one is started instead; if the onboarding has closed, it sends
+      // `completed` straight away and ends the stream.
+      if (watch.add(emitter)) {
+        return emitter;
+      }
+    }
+  }
+
+  private void unsubscribe(String id, SseEmitter emitter) {
+    watches.computeIfPresent(id, (key, watch) -> watch.remove(emitter) ? null : watch);
+  }
+
+  @Override
+  public void destroy() {
+    watches.values().forEach(Watch::stop);
+    executor.shutdownNow();
+  }
+
+  private class Watch implements Runnable {
+    private final String id;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean stopped;
+    private volatile EntityOnboardingState lastState;
+
+    Watch(String id) {
+      this.id = id;
+    }
+
+    // true for exactly one subscriber, which then hands this watch to the executor
+    boolean claimStart() {
+      return started.compareAndSet(false, true);
+    }
+
+    // false once this watch has stopped; it then never sends to `emitter`
+    boolean add(SseEmitter emitter) {
+      synchronized (this) {
+        if (stopped) {
+          return false;
+        }
+        subscribers.add(emitter);
+      }
+      var state = lastState;
+      if (state != null) {
+        send(emitter, "state", state);
+      }
+      return true;
+    }
+
+    // true once this watch has stopped, which it does when its last subscriber goes
+    synchronized boolean remove(SseEmitter emitter) {
+      if (subscribers.remove(emitter) && subscribers.isEmpty()) {
+        stopped = true;
+      }
+      return stopped;
+    }
+
+    // Stops the watch and hands back the subscribers to end. Nobody can subscribe after this,
+    // so none of them is left waiting on a watch that has gone.
+    synchronized List<SseEmitter> stop() {
+      stopped = true;
+      return List.copyOf(subscribers);
+    }
+
+    @Override
+    public void run() {
+      try {
+        follow();
+      } catch (RuntimeException e) {
+        logger.warn("Stopped watching onboarding {}", id, e);
+        stop().forEach(s -> s.completeWithError(e));
+      } finally {
+        stop();
+        watches.remove(id, this);
+      }
+    }
+
+    private void follow() {
+      var info = describe();
+      var runId = info.getExecution().getRunId();
+      // The history API cannot start part way through, so the first long-polls page through the
+      // events that already happened. The state read below reflects those, so they are skipped
+      // without another Query.
+      var seenEvents = info.getHistoryLength();
+      refreshState("state", false);
+      var pageToken = ByteString.EMPTY;
+      while (!stopped) {
+        GetWorkflowExecutionHistoryResponse page;
+        try {
+          page = longPoll(runId, pageToken);
+        } catch (StatusRuntimeException e) {
+          if (e.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED) {
+            continue;
+          }
+          throw e;
+        }
+        var stateMayHaveChanged = false;
+        String continuedAsNewRunId = null;
+        var closed = false;
+        for (HistoryEvent event : page.getHistory().getEventsList()) {
+          switch (event.getEventType()) {
+            case EVENT_TYPE_WORKFLOW_TASK_COMPLETED ->
+                stateMayHaveChanged |= event.getEventId() > seenEvents;
+            case EVENT_TYPE_WORKFLOW_EXECUTION_CONTINUED_AS_NEW ->
+                continuedAsNewRunId =
+                    event.getWorkflowExecutionContinuedAsNewEventAttributes().getNewExecutionRunId();
+            case EVENT_TYPE_WORKFLOW_EXECUTION_COMPLETED,
+                EVENT_TYPE_WORKFLOW_EXECUTION_FAILED,
+                EVENT_TYPE_WORKFLOW_EXECUTION_TIMED_OUT,
+                EVENT_TYPE_WORKFLOW_EXECUTION_TERMINATED,
+                EVENT_TYPE_WORKFLOW_EXECUTION_CANCELED -> closed = true;
+            default -> {}
+          }
+        }
+        if (continuedAsNewRunId != null) {
+          refreshState("continued-as-new", true);
+          runId = continuedAsNewRunId;
+          seenEvents = 0;
+          pageToken = ByteString.EMPTY;
+          continue;
+        }
+        if (closed) {
+          // this first read after the close also takes the snapshot later GETs are served from
+          refreshState("completed", true);
+          stop().forEach(SseEmitter::complete);
+          return;
+        }
+        if (stateMayHaveChanged) {
+          refreshState("state", false);
+        }
+        pageToken = page.getNextPageToken();
+      }
+    }
+
+    private WorkflowExecutionInfo describe() {
+      return temporalClient
+          .getWorkflowServiceStubs()
+          .blockingStub()
+          .describeWorkflowExecution(
+              DescribeWorkflowExecutionRequest.newBuilder()
+                  .setNamespace(temporalClient.getOptions().getNamespace())
+                  .setExecution(WorkflowExecution.newBuilder().setWorkflowId(id).build())
+                  .build())
+          .getWorkflowExecutionInfo();
+    }
+
+    private GetWorkflowExecutionHistoryResponse longPoll(String runId, ByteString pageToken) {
+      var svc = temporalClient.getWorkflowServiceStubs();
+      return svc.blockingStub()
+          .withDeadlineAfter(
+              svc.getOptions().getRpcLongPollTimeout().toMillis(), TimeUnit.MILLISECONDS)
+          .getWorkflowExecutionHistory(
+              GetWorkflowExecutionHistoryRequest.newBuilder()
+                  .setNamespace(temporalClient.getOptions().getNamespace())
+                  .setExecution(
+                      WorkflowExecution.newBuilder().setWorkflowId(id).setRunId(runId).build())
+                  .setHistoryEventFilterType(
+                      HistoryEventFilterType.HISTORY_EVENT_FILTER_TYPE_ALL_EVENT)
+                  .setWaitNewEvent(true)
+                  .setNextPageToken(pageToken)
+                  .build());
+    }
+
+    private void refreshState(String eventName, boolean always) {
+      // Plain reads are invalidated so they see the change too, but the watcher does not read
+      // through the cache or join a console's Query, either of which may predate the change.
+      stateQueries.invalidate(id);
+      var state = stateQueries.loadState(id);
+      if (always || !state.equals(lastState)) {
+        lastState = state;
+        subscribers.forEach(s -> send(s, eventName, state));
+      }
+    }
+
+    private void send(SseEmitter emitter, String eventName, EntityOnboardingState state) {
+      try {
+        emitter.send(
+            SseEmitter.event()
+                .name(eventName)
+                .data(
+                    new OnboardingsGetV1(
+                        state.id(),
+                        state.currentValue(),
+                        state.approval().approvalStatus().name(),
+                        state.approval().comment())));
+      } catch (IOException e) {
+        subscribers.remove(emitter);
+      }
+    }
+  }
+}
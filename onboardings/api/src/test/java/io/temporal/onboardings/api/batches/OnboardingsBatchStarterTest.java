@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.batches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptor;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkflowClientInterceptorBase;
+import io.temporal.onboardings.api.messages.OnboardingsBatchResultV2;
+import io.temporal.onboardings.api.messages.OnboardingsBatchStatusV2;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OnboardingsBatchStarterTest {
+  private static final String TASK_QUEUE = "onboardings-batch-test";
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicInteger startsInFlight = new AtomicInteger();
+  private final AtomicInteger maxStartsInFlight = new AtomicInteger();
+  private TestWorkflowEnvironment testWorkflowEnvironment;
+  private OnboardingsBatchStarter sut;
+
+  @AfterEach
+  void afterEach() {
+    sut.destroy();
+    testWorkflowEnvironment.close();
+  }
+
+  @Test
+  public void start_givenNdjsonUpload_itShouldStartEveryLineAndSkipBlankOnes() throws IOException {
+    sut = starter(4);
+    var ids = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+
+    var results = upload(line(ids.get(0)) + "\n\n" + line(ids.get(1)) + "\n");
+
+    Assertions.assertEquals(
+        List.of(
+            new OnboardingsBatchResultV2(1, ids.get(0), OnboardingsBatchStatusV2.STARTED, null),
+            new OnboardingsBatchResultV2(3, ids.get(1), OnboardingsBatchStatusV2.STARTED, null)),
+        results);
+  }
+
+  @Test
+  public void start_givenBadLines_itShouldReportThemAndKeepGoing() throws IOException {
+    sut = starter(4);
+    var id = UUID.randomUUID().toString();
+
+    var results =
+        upload(String.join("\n", "{not json", "{\"value\":\"no id\"}", line(id), line(id)));
+
+    Assertions.assertEquals(4, results.size());
+    Assertions.assertEquals(OnboardingsBatchStatusV2.FAILED, results.get(0).status());
+    Assertions.assertTrue(results.get(0).error().startsWith("Malformed JSON"));
+    Assertions.assertEquals(OnboardingsBatchStatusV2.FAILED, results.get(1).status());
+    Assertions.assertEquals("id is required", results.get(1).error());
+    Assertions.assertEquals(
+        List.of(OnboardingsBatchStatusV2.STARTED, OnboardingsBatchStatusV2.ALREADY_STARTED),
+        results.subList(2, 4).stream().map(OnboardingsBatchResultV2::status).sorted().toList());
+  }
+
+  @Test
+  public void start_givenConcurrentUploads_itShouldNeverExceedMaxInFlightStarts()
+      throws Exception {
+    sut = starter(2);
+    var uploads =
+        IntStream.range(0, 3)
+            .mapToObj(
+                u ->
+                    CompletableFuture.supplyAsync(
+                        () -> {
+                          try {
+                            return upload(
+                                IntStream.range(0, 10)
+                                    .mapToObj(i -> line(UUID.randomUUID().toString()))
+                                    .collect(Collectors.joining("\n")));
+                          } catch (IOException e) {
+                            throw new RuntimeException(e);
+                          }
+                        }))
+            .toList();
+
+    for (var upload : uploads) {
+      Assertions.assertEquals(10, upload.get().size());
+    }
+    Assertions.assertTrue(maxStartsInFlight.get() <= 2, "starts in flight: " + maxStartsInFlight);
+  }
+
+  private OnboardingsBatchStarter starter(int maxInFlight) {
+    testWorkflowEnvironment =
+        TestWorkflowEnvironment.newInstance(
+            TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(
+                    WorkflowClientOptions.newBuilder()
+                        .setInterceptors(new SlowStartInterceptor())
+                        .build())
+                .build());
+    return new OnboardingsBatchStarter(
+        testWorkflowEnvironment.getWorkflowClient(), objectMapper, TASK_QUEUE, maxInFlight);
+  }
+
+  private List<OnboardingsBatchResultV2> upload(String ndjson) throws IOException {
+    var out = new ByteArrayOutputStream();
+    sut.start(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+    var results = new ArrayList<OnboardingsBatchResultV2>();
+    for (var line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      results.add(objectMapper.readValue(line, OnboardingsBatchResultV2.class));
+    }
+    results.sort(Comparator.comparingLong(OnboardingsBatchResultV2::line));
+    return results;
+  }
+
+  private static String line(String id) {
+    return String.format("{\"id\":\"%s\",\"value\":\"value-%s\"}", id, id);
+  }
+
+  // holds every start briefly so concurrent starts overlap and can be counted
+  private class SlowStartInterceptor extends WorkflowClientInterceptorBase {
+    @Override
+    public WorkflowClientCallsInterceptor workflowClientCallsInterceptor(
+        WorkflowClientCallsInterceptor next) {
+      return new WorkflowClientCallsInterceptorBase(next) {
+        @Override
+        public WorkflowStartOutput start(WorkflowStartInput input) {
+          maxStartsInFlight.accumulateAndGet(startsInFlight.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(20);
+            return super.start(input);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          } finally {
+            startsInFlight.decrementAndGet();
+          }
+        }
+      };
+    }
+  }
+}
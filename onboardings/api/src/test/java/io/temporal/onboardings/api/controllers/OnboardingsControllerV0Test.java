@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.controllers;
+
+import static org.mockito.Mockito.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.api.enums.v1.WorkflowExecutionStatus;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.history.v1.WorkflowExecutionStartedEventAttributes;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
+import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionResponse;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryResponse;
+import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.onboardings.api.messages.OnboardingsGetV0;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+public class OnboardingsControllerV0Test {
+  private final WorkflowServiceGrpc.WorkflowServiceFutureStub service =
+      mock(WorkflowServiceGrpc.WorkflowServiceFutureStub.class);
+  private final OnboardingsControllerV0 sut = new OnboardingsControllerV0();
+
+  @BeforeEach
+  void beforeEach() {
+    var serviceStubs = mock(WorkflowServiceStubs.class);
+    when(serviceStubs.futureStub()).thenReturn(service);
+    sut.temporalClient = mock(WorkflowClient.class);
+    when(sut.temporalClient.getWorkflowServiceStubs()).thenReturn(serviceStubs);
+    when(sut.temporalClient.getOptions())
+        .thenReturn(
+            WorkflowClientOptions.newBuilder()
+                .setNamespace("onboardings")
+                .setDataConverter(DefaultDataConverter.STANDARD_INSTANCE)
+                .build());
+  }
+
+  @Test
+  public void onboardingGet_givenExecution_itShouldDecodeItsInputFromTheHeadOfHistory() {
+    var request = new OnboardEntityRequest("entity-1", "value", 60, "deputy@example.com", false);
+    when(service.describeWorkflowExecution(any()))
+        .thenReturn(
+            Futures.immediateFuture(
+                describe(WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_RUNNING)));
+    when(service.getWorkflowExecutionHistory(any()))
+        .thenReturn(Futures.immediateFuture(head(request)));
+
+    var response = sut.onboardingGet("entity-1");
+
+    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    Assertions.assertEquals(
+        new OnboardingsGetV0("entity-1", "WORKFLOW_EXECUTION_STATUS_RUNNING", request),
+        response.getBody());
+    var describeRequest = ArgumentCaptor.forClass(DescribeWorkflowExecutionRequest.class);
+    verify(service).describeWorkflowExecution(describeRequest.capture());
+    Assertions.assertEquals("onboardings", describeRequest.getValue().getNamespace());
+    Assertions.assertEquals("entity-1", describeRequest.getValue().getExecution().getWorkflowId());
+    var historyRequest = ArgumentCaptor.forClass(GetWorkflowExecutionHistoryRequest.class);
+    verify(service).getWorkflowExecutionHistory(historyRequest.capture());
+    Assertions.assertEquals("onboardings", historyRequest.getValue().getNamespace());
+    Assertions.assertEquals("entity-1", historyRequest.getValue().getExecution().getWorkflowId());
+    Assertions.assertEquals(1, historyRequest.getValue().getMaximumPageSize());
+  }
+
+  @Test
+  public void onboardingGet_givenUnknownId_itShouldBeNotFoundAndCancelTheOtherCall() {
+    SettableFuture<GetWorkflowExecutionHistoryResponse> history = SettableFuture.create();
+    when(service.describeWorkflowExecution(any()))
+        .thenReturn(Futures.immediateFailedFuture(new StatusRuntimeException(Status.NOT_FOUND)));
+    when(service.getWorkflowExecutionHistory(any())).thenReturn(history);
+
+    var response = sut.onboardingGet("missing");
+
+    Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    Assertions.assertTrue(history.isCancelled());
+  }
+
+  @Test
+  public void onboardingGet_givenEmptyHistory_itShouldBeNotFound() {
+    when(service.describeWorkflowExecution(any()))
+        .thenReturn(
+            Futures.immediateFuture(
+                describe(WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_RUNNING)));
+    when(service.getWorkflowExecutionHistory(any()))
+        .thenReturn(
+            Futures.immediateFuture(GetWorkflowExecutionHistoryResponse.getDefaultInstance()));
+
+    var response = sut.onboardingGet("entity-1");
+
+    Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  public void onboardingGet_givenServiceError_itShouldPropagateIt() {
+    when(service.describeWorkflowExecution(any()))
+        .thenReturn(Futures.immediateFailedFuture(new StatusRuntimeException(Status.UNAVAILABLE)));
+    when(service.getWorkflowExecutionHistory(any())).thenReturn(SettableFuture.create());
+
+    var e = Assertions.assertThrows(RuntimeException.class, () -> sut.onboardingGet("entity-1"));
+
+    Assertions.assertInstanceOf(StatusRuntimeException.class, e.getCause());
+  }
+
+  private static DescribeWorkflowExecutionResponse describe(WorkflowExecutionStatus status) {
+    return DescribeWorkflowExecutionResponse.newBuilder()
+        .setWorkflowExecutionInfo(WorkflowExecutionInfo.newBuilder().setStatus(status))
+        .build();
+  }
+
+  private static GetWorkflowExecutionHistoryResponse head(OnboardEntityRequest request) {
+    var input = DefaultDataConverter.STANDARD_INSTANCE.toPayloads(request).orElseThrow();
+    return GetWorkflowExecutionHistoryResponse.newBuilder()
+        .setHistory(
+            History.newBuilder()
+                .addEvents(
+                    HistoryEvent.newBuilder()
+                        .setEventId(1)
+                        .setEventType(EventType.EVENT_TYPE_WORKFLOW_EXECUTION_STARTED)
+                        .setWorkflowExecutionStartedEventAttributes(
+                            WorkflowExecutionStartedEventAttributes.newBuilder()
+                                .setInput(input))))
+        .build();
+  }
+}
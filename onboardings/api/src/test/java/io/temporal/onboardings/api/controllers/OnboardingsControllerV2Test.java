@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.controllers;
+
+import static org.mockito.Mockito.*;
+
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.SearchAttributes;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.enums.v1.WorkflowExecutionStatus;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsRequest;
+import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsResponse;
+import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptor;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkflowClientInterceptorBase;
+import io.temporal.onboardings.api.messages.OnboardingsListItemV2;
+import io.temporal.onboardings.api.messages.OnboardingsPutV2;
+import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
+import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboardingSearchAttributes;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+public class OnboardingsControllerV2Test {
+  private final WorkflowServiceGrpc.WorkflowServiceBlockingStub visibility =
+      mock(WorkflowServiceGrpc.WorkflowServiceBlockingStub.class);
+  private final OnboardingsControllerV2 sut = new OnboardingsControllerV2();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<WorkflowOptions> startOptions = new CopyOnWriteArrayList<>();
+  private TestWorkflowEnvironment testWorkflowEnvironment;
+
+  @BeforeEach
+  void beforeEach() {
+    var serviceStubs = mock(WorkflowServiceStubs.class);
+    when(serviceStubs.blockingStub()).thenReturn(visibility);
+    sut.temporalClient = mock(WorkflowClient.class);
+    when(sut.temporalClient.getWorkflowServiceStubs()).thenReturn(serviceStubs);
+    when(sut.temporalClient.getOptions())
+        .thenReturn(WorkflowClientOptions.newBuilder().setNamespace("onboardings").build());
+  }
+
+  @AfterEach
+  void afterEach() {
+    if (testWorkflowEnvironment != null) {
+      testWorkflowEnvironment.close();
+    }
+  }
+
+  @Test
+  public void onboardingsList_givenStatus_itShouldFilterVisibilityAndMapSearchAttributes() {
+    var nextPageToken = "next".getBytes(StandardCharsets.UTF_8);
+    when(visibility.listWorkflowExecutions(any()))
+        .thenReturn(
+            ListWorkflowExecutionsResponse.newBuilder()
+                .addExecutions(execution("with-deputy", "PENDING", true))
+                .addExecutions(execution("without-deputy", "PENDING", false))
+                .setNextPageToken(ByteString.copyFrom(nextPageToken))
+                .build());
+
+    var response = sut.onboardingsList(ApprovalStatus.PENDING, null, 5_000);
+
+    var request = ArgumentCaptor.forClass(ListWorkflowExecutionsRequest.class);
+    verify(visibility).listWorkflowExecutions(request.capture());
+    Assertions.assertEquals("onboardings", request.getValue().getNamespace());
+    Assertions.assertEquals(
+        "WorkflowType = 'EntityOnboarding' AND OnboardingApprovalStatus = 'PENDING'",
+        request.getValue().getQuery());
+    Assertions.assertEquals(1000, request.getValue().getPageSize());
+    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    Assertions.assertEquals(
+        List.of(
+            new OnboardingsListItemV2(
+                "with-deputy", "PENDING", true, "WORKFLOW_EXECUTION_STATUS_RUNNING"),
+            new OnboardingsListItemV2(
+                "without-deputy", "PENDING", false, "WORKFLOW_EXECUTION_STATUS_RUNNING")),
+        response.getBody().onboardings());
+    Assertions.assertArrayEquals(
+        nextPageToken, Base64.getUrlDecoder().decode(response.getBody().nextPageToken()));
+  }
+
+  @Test
+  public void onboardingsList_givenPageToken_itShouldResumeFromIt() {
+    when(visibility.listWorkflowExecutions(any()))
+        .thenReturn(ListWorkflowExecutionsResponse.getDefaultInstance());
+    var pageToken = "page-2".getBytes(StandardCharsets.UTF_8);
+
+    var response =
+        sut.onboardingsList(
+            null, Base64.getUrlEncoder().withoutPadding().encodeToString(pageToken), 50);
+
+    var request = ArgumentCaptor.forClass(ListWorkflowExecutionsRequest.class);
+    verify(visibility).listWorkflowExecutions(request.capture());
+    Assertions.assertEquals("WorkflowType = 'EntityOnboarding'", request.getValue().getQuery());
+    Assertions.assertArrayEquals(pageToken, request.getValue().getNextPageToken().toByteArray());
+    Assertions.assertEquals(List.of(), response.getBody().onboardings());
+    Assertions.assertNull(response.getBody().nextPageToken());
+  }
+
+  @Test
+  public void onboardingsList_givenMalformedPageToken_itShouldBeABadRequest() {
+    var response = sut.onboardingsList(null, "not base64!", 50);
+
+    Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(visibility);
+  }
+
+  @Test
+  public void onboardingPut_givenSkipApprovalAndEagerStart_itShouldStartEagerlyAndTimeIt()
+      throws InterruptedException {
+    useTestServer(true);
+
+    var response =
+        sut.onboardingPut("eager", new OnboardingsPutV2("eager", "value", null, null, true));
+
+    Assertions.assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    Assertions.assertFalse(startOptions.get(0).isDisableEagerExecution());
+    Assertions.assertEquals(1, awaitCompletionTimer("true").count());
+  }
+
+  @Test
+  public void onboardingPut_givenSkipApprovalWithoutEagerStart_itShouldStillTimeIt()
+      throws InterruptedException {
+    useTestServer(false);
+
+    sut.onboardingPut("lazy", new OnboardingsPutV2("lazy", "value", null, null, true));
+
+    Assertions.assertTrue(startOptions.get(0).isDisableEagerExecution());
+    Assertions.assertEquals(1, awaitCompletionTimer("false").count());
+  }
+
+  @Test
+  public void onboardingPut_givenPendingApproval_itShouldNeitherStartEagerlyNorTimeIt() {
+    useTestServer(true);
+
+    var response =
+        sut.onboardingPut(
+            "pending",
+            new OnboardingsPutV2(
+                "pending", "value", new Approval(ApprovalStatus.PENDING, null), null, null));
+
+    Assertions.assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    Assertions.assertTrue(startOptions.get(0).isDisableEagerExecution());
+    Assertions.assertNull(meterRegistry.find("onboardings.start.completion").timer());
+  }
+
+  private void useTestServer(boolean eagerStart) {
+    testWorkflowEnvironment =
+        TestWorkflowEnvironment.newInstance(
+            TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(
+                    WorkflowClientOptions.newBuilder()
+                        .setInterceptors(new StartOptionsInterceptor())
+                        .build())
+                .build());
+    testWorkflowEnvironment
+        .newWorker("onboardings")
+        .registerWorkflowImplementationTypes(CompletingEntityOnboarding.class);
+    testWorkflowEnvironment.start();
+    sut.temporalClient = testWorkflowEnvironment.getWorkflowClient();
+    sut.meterRegistry = meterRegistry;
+    sut.taskQueue = "onboardings";
+    sut.eagerStart = eagerStart;
+  }
+
+  private Timer awaitCompletionTimer(String eager) throws InterruptedException {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    var timer = meterRegistry.find("onboardings.start.completion").tag("eager", eager).timer();
+    while ((timer == null || timer.count() == 0) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      timer = meterRegistry.find("onboardings.start.completion").tag("eager", eager).timer();
+    }
+    Assertions.assertNotNull(timer);
+    return timer;
+  }
+
+  private static WorkflowExecutionInfo execution(
+      String id, String approvalStatus, boolean hasDeputyOwner) {
+    return WorkflowExecutionInfo.newBuilder()
+        .setExecution(WorkflowExecution.newBuilder().setWorkflowId(id))
+        .setStatus(WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_RUNNING)
+        .setSearchAttributes(
+            SearchAttributes.newBuilder()
+                .putIndexedFields(
+                    EntityOnboardingSearchAttributes.APPROVAL_STATUS.getName(),
+                    payload(approvalStatus))
+                .putIndexedFields(EntityOnboardingSearchAttributes.ENTITY_ID.getName(), payload(id))
+                .putIndexedFields(
+                    EntityOnboardingSearchAttributes.HAS_DEPUTY_OWNER.getName(),
+                    payload(hasDeputyOwner)))
+        .build();
+  }
+
+  private static Payload payload(Object value) {
+    return DefaultDataConverter.STANDARD_INSTANCE.toPayload(value).orElseThrow();
+  }
+
+  // records the options every Workflow is started with
+  private class StartOptionsInterceptor extends WorkflowClientInterceptorBase {
+    @Override
+    public WorkflowClientCallsInterceptor workflowClientCallsInterceptor(
+        WorkflowClientCallsInterceptor next) {
+      return new WorkflowClientCallsInterceptorBase(next) {
+        @Override
+        public WorkflowStartOutput start(WorkflowStartInput input) {
+          startOptions.add(input.getOptions());
+          return super.start(input);
+        }
+      };
+    }
+  }
+
+  // closes as soon as it starts, like a skip-approval onboarding whose Activities succeed
+  public static class CompletingEntityOnboarding implements EntityOnboarding {
+    @Override
+    public void execute(OnboardEntityRequest args) {}
+
+    @Override
+    public EntityOnboardingState getState() {
+      return new EntityOnboardingState();
+    }
+
+    @Override
+    public void approve(ApproveEntityRequest cmd) {}
+
+    @Override
+    public void reject(RejectEntityRequest cmd) {}
+
+    @Override
+    public EntityOnboardingState approveEntity(ApproveEntityRequest cmd) {
+      return getState();
+    }
+
+    @Override
+    public void validateApproveEntity(ApproveEntityRequest cmd) {}
+
+    @Override
+    public EntityOnboardingState rejectEntity(RejectEntityRequest cmd) {
+      return getState();
+    }
+
+    @Override
+    public void validateRejectEntity(RejectEntityRequest cmd) {}
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.queries;
+
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.client.WorkflowClient;
+import io.temporal.onboardings.api.snapshots.EntityOnboardingSnapshotStore;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EntityOnboardingStateQueriesTest {
+  private static final String ID = "entity-1";
+  private static final EntityOnboardingState PENDING =
+      new EntityOnboardingState(ID, "v", new Approval(ApprovalStatus.PENDING, null));
+  private static final EntityOnboardingState APPROVED =
+      new EntityOnboardingState(ID, "v", new Approval(ApprovalStatus.APPROVED, "ok"));
+
+  @TempDir Path dir;
+
+  private final WorkflowClient temporalClient = mock(WorkflowClient.class);
+  private final EntityOnboarding workflow = mock(EntityOnboarding.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private EntityOnboardingSnapshotStore snapshots;
+
+  @BeforeEach
+  void beforeEach() throws Exception {
+    when(temporalClient.newWorkflowStub(EntityOnboarding.class, ID)).thenReturn(workflow);
+    snapshots = new EntityOnboardingSnapshotStore(new ObjectMapper(), false, dir.resolve("s"));
+  }
+
+  @Test
+  public void getState_givenConcurrentReads_itShouldShareOneQuery() throws Exception {
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    when(workflow.getState())
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              release.await();
+              return PENDING;
+            });
+    var sut = sut(Duration.ZERO);
+
+    var leader = CompletableFuture.supplyAsync(() -> sut.getState(ID));
+    Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+    var follower = CompletableFuture.supplyAsync(() -> sut.getState(ID));
+    awaitCount("coalesced", 1);
+    release.countDown();
+
+    Assertions.assertEquals(PENDING, leader.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(PENDING, follower.get(5, TimeUnit.SECONDS));
+    verify(workflow, times(1)).getState();
+  }
+
+  @Test
+  public void getState_givenCacheTtl_itShouldServeRepeatReadsFromTheCache() {
+    when(workflow.getState()).thenReturn(PENDING);
+    var sut = sut(Duration.ofMinutes(1));
+
+    Assertions.assertEquals(PENDING, sut.getState(ID));
+    Assertions.assertEquals(PENDING, sut.getState(ID));
+
+    verify(workflow, times(1)).getState();
+    Assertions.assertEquals(1, count("miss"));
+    Assertions.assertEquals(1, count("hit"));
+  }
+
+  @Test
+  public void getState_givenNoCacheTtl_itShouldQueryEveryTime() {
+    when(workflow.getState()).thenReturn(PENDING);
+    var sut = sut(Duration.ZERO);
+
+    sut.getState(ID);
+    sut.getState(ID);
+
+    verify(workflow, times(2)).getState();
+    Assertions.assertEquals(0, count("hit"));
+  }
+
+  @Test
+  public void invalidate_givenCachedState_itShouldQueryAgain() {
+    when(workflow.getState()).thenReturn(PENDING, APPROVED);
+    var sut = sut(Duration.ofMinutes(1));
+
+    Assertions.assertEquals(PENDING, sut.getState(ID));
+    sut.invalidate(ID);
+
+    Assertions.assertEquals(APPROVED, sut.getState(ID));
+    verify(workflow, times(2)).getState();
+  }
+
+  @Test
+  public void invalidate_givenQueryInFlight_laterReadsShouldNotGetItsResult() throws Exception {
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var calls = new AtomicInteger();
+    when(workflow.getState())
+        .thenAnswer(
+            invocation -> {
+              if (calls.incrementAndGet() > 1) {
+                return APPROVED;
+              }
+              loading.countDown();
+              release.await();
+              return PENDING;
+            });
+    var sut = sut(Duration.ofMinutes(1));
+
+    var stale = CompletableFuture.supplyAsync(() -> sut.getState(ID));
+    Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+    // eg an approval lands while the first Query is still being answered
+    sut.invalidate(ID);
+
+    var fresh = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> sut.getState(ID));
+    Assertions.assertEquals(APPROVED, fresh);
+    release.countDown();
+    Assertions.assertEquals(PENDING, stale.get(5, TimeUnit.SECONDS));
+
+    // the stale result must not have replaced the fresh one in the cache
+    Assertions.assertEquals(APPROVED, sut.getState(ID));
+    Assertions.assertEquals(2, calls.get());
+    Assertions.assertEquals(0, count("coalesced"));
+  }
+
+  @Test
+  public void loadState_givenCachedState_itShouldQueryAnyway() {
+    when(workflow.getState()).thenReturn(PENDING, APPROVED);
+    var sut = sut(Duration.ofMinutes(1));
+
+    Assertions.assertEquals(PENDING, sut.getState(ID));
+
+    Assertions.assertEquals(APPROVED, sut.loadState(ID));
+    verify(workflow, times(2)).getState();
+  }
+
+  private EntityOnboardingStateQueries sut(Duration cacheTtl) {
+    return new EntityOnboardingStateQueries(
+        temporalClient, temporalClient, snapshots, meterRegistry, cacheTtl, 100);
+  }
+
+  private double count(String result) {
+    return meterRegistry.counter("onboardings.queries.state", "result", result).count();
+  }
+
+  private void awaitCount(String result, double expected) throws InterruptedException {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (count(result) < expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Assertions.assertEquals(expected, count(result));
+  }
+}
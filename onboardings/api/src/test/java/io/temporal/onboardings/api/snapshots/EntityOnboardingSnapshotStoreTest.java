@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.snapshots;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EntityOnboardingSnapshotStoreTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  @TempDir Path dir;
+  private Path path;
+  private EntityOnboardingSnapshotStore sut;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    path = dir.resolve("snapshots.ndjson");
+    sut = new EntityOnboardingSnapshotStore(objectMapper, true, path);
+  }
+
+  @AfterEach
+  void afterEach() throws IOException {
+    sut.destroy();
+  }
+
+  @Test
+  public void find_givenAppendedSnapshots_itShouldReturnTheLatestPerWorkflowId() {
+    sut.append(snapshot("a", "run-1", ApprovalStatus.REJECTED));
+    sut.append(snapshot("b", "run-1", ApprovalStatus.APPROVED));
+    sut.append(snapshot("a", "run-2", ApprovalStatus.APPROVED));
+
+    Assertions.assertEquals(
+        Optional.of(snapshot("a", "run-2", ApprovalStatus.APPROVED)), sut.find("a"));
+    Assertions.assertEquals(
+        Optional.of(snapshot("b", "run-1", ApprovalStatus.APPROVED)), sut.find("b"));
+    Assertions.assertEquals(Optional.empty(), sut.find("c"));
+  }
+
+  @Test
+  public void loadIndex_givenExistingFile_itShouldRebuildTheIndexOnStartup() throws IOException {
+    sut.append(snapshot("a", "run-1", ApprovalStatus.REJECTED));
+    sut.append(snapshot("a", "run-2", ApprovalStatus.APPROVED));
+
+    reopen();
+
+    Assertions.assertEquals(
+        Optional.of(snapshot("a", "run-2", ApprovalStatus.APPROVED)), sut.find("a"));
+  }
+
+  @Test
+  public void loadIndex_givenTornLastLine_itShouldTruncateIt() throws IOException {
+    sut.append(snapshot("a", "run-1", ApprovalStatus.APPROVED));
+    var size = Files.size(path);
+    // an append interrupted before its newline
+    write("{\"workflowId\":\"torn\",\"runId\":");
+
+    reopen();
+
+    Assertions.assertEquals(size, Files.size(path));
+    Assertions.assertEquals(Optional.empty(), sut.find("torn"));
+    sut.append(snapshot("b", "run-1", ApprovalStatus.APPROVED));
+    Assertions.assertEquals(
+        Optional.of(snapshot("a", "run-1", ApprovalStatus.APPROVED)), sut.find("a"));
+    Assertions.assertEquals(
+        Optional.of(snapshot("b", "run-1", ApprovalStatus.APPROVED)), sut.find("b"));
+  }
+
+  @Test
+  public void loadIndex_givenUnreadableLine_itShouldSkipItAndKeepTheRest() throws IOException {
+    sut.append(snapshot("a", "run-1", ApprovalStatus.APPROVED));
+    write("not json\n");
+    sut.append(snapshot("b", "run-1", ApprovalStatus.REJECTED));
+
+    reopen();
+
+    Assertions.assertEquals(
+        Optional.of(snapshot("a", "run-1", ApprovalStatus.APPROVED)), sut.find("a"));
+    Assertions.assertEquals(
+        Optional.of(snapshot("b", "run-1", ApprovalStatus.REJECTED)), sut.find("b"));
+  }
+
+  @Test
+  public void append_givenDisabled_itShouldStoreNothing() throws IOException {
+    var disabled =
+        new EntityOnboardingSnapshotStore(objectMapper, false, dir.resolve("disabled.ndjson"));
+
+    disabled.append(snapshot("a", "run-1", ApprovalStatus.APPROVED));
+
+    Assertions.assertEquals(Optional.empty(), disabled.find("a"));
+    Assertions.assertFalse(Files.exists(dir.resolve("disabled.ndjson")));
+  }
+
+  private void reopen() throws IOException {
+    sut.destroy();
+    sut = new EntityOnboardingSnapshotStore(objectMapper, true, path);
+  }
+
+  private void write(String text) throws IOException {
+    Files.writeString(path, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+
+  private static EntityOnboardingSnapshot snapshot(
+      String workflowId, String runId, ApprovalStatus approvalStatus) {
+    return new EntityOnboardingSnapshot(
+        workflowId,
+        runId,
+        "WORKFLOW_EXECUTION_STATUS_COMPLETED",
+        new EntityOnboardingState(workflowId, "value", new Approval(approvalStatus, null)));
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.api.streams;
+
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.onboardings.api.messages.OnboardingsGetV1;
+import io.temporal.onboardings.api.queries.EntityOnboardingStateQueries;
+import io.temporal.onboardings.api.snapshots.EntityOnboardingSnapshotStore;
+import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
+import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import io.temporal.onboardings.domain.orchestrations.EntityOnboarding;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.workflow.Workflow;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class EntityOnboardingStateWatchersTest {
+  private static final String TASK_QUEUE = "onboardings-watchers-test";
+
+  @TempDir Path dir;
+
+  private TestWorkflowEnvironment testWorkflowEnvironment;
+  private WorkflowClient client;
+  private EntityOnboardingStateQueries stateQueries;
+  private EntityOnboardingStateWatchers sut;
+
+  @BeforeEach
+  void beforeEach() throws Exception {
+    testWorkflowEnvironment = TestWorkflowEnvironment.newInstance();
+    testWorkflowEnvironment
+        .newWorker(TASK_QUEUE)
+        .registerWorkflowImplementationTypes(FakeEntityOnboarding.class);
+    testWorkflowEnvironment.start();
+    client = testWorkflowEnvironment.getWorkflowClient();
+    stateQueries =
+        spy(
+            new EntityOnboardingStateQueries(
+                client,
+                new EntityOnboardingSnapshotStore(new ObjectMapper(), false, dir.resolve("s")),
+                new SimpleMeterRegistry(),
+                Duration.ofMinutes(1),
+                100));
+    sut = new EntityOnboardingStateWatchers(client, stateQueries, Duration.ofMinutes(1), 64);
+  }
+
+  @AfterEach
+  void afterEach() {
+    sut.destroy();
+    testWorkflowEnvironment.close();
+  }
+
+  @Test
+  public void subscribe_givenApproval_itShouldSendTheNewStateAndComplete() throws Exception {
+    var workflow = start();
+    var emitter = new RecordingEmitter();
+
+    sut.subscribe(id(workflow), emitter);
+    emitter.awaitEvent("state PENDING");
+    workflow.approve(new ApproveEntityRequest("ok"));
+
+    Assertions.assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+    Assertions.assertEquals("state PENDING", emitter.events.get(0));
+    Assertions.assertEquals("completed APPROVED", emitter.events.get(emitter.events.size() - 1));
+    // the watcher must not be answered from the cache or by a console's Query in flight
+    verify(stateQueries, never()).getState(any());
+  }
+
+  @Test
+  public void subscribe_givenClosedOnboarding_itShouldCompleteRightAway() throws Exception {
+    var workflow = start();
+    workflow.reject(new RejectEntityRequest("no"));
+    WorkflowStub.fromTyped(workflow).getResult(Void.class);
+    var emitter = new RecordingEmitter();
+
+    sut.subscribe(id(workflow), emitter);
+
+    Assertions.assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+    Assertions.assertEquals("completed REJECTED", emitter.events.get(emitter.events.size() - 1));
+  }
+
+  @Test
+  public void subscribe_givenWatchClosingMeanwhile_itShouldNotLeaveSubscribersHanging()
+      throws Exception {
+    var workflow = start();
+    var emitters = IntStream.range(0, 50).mapToObj(i -> new RecordingEmitter()).toList();
+
+    var subscribing =
+        CompletableFuture.runAsync(
+            () -> emitters.forEach(emitter -> sut.subscribe(id(workflow), emitter)));
+    workflow.approve(new ApproveEntityRequest("ok"));
+    subscribing.get(10, TimeUnit.SECONDS);
+
+    for (var emitter : emitters) {
+      Assertions.assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  private EntityOnboarding start() {
+    var workflow =
+        client.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder()
+                .setWorkflowId(UUID.randomUUID().toString())
+                .setTaskQueue(TASK_QUEUE)
+                .build());
+    WorkflowClient.start(
+        workflow::execute, new OnboardEntityRequest(null, "value", 0, null, false));
+    // answered once the first Workflow Task has run
+    workflow.getState();
+    return workflow;
+  }
+
+  private static String id(EntityOnboarding workflow) {
+    return WorkflowStub.fromTyped(workflow).getExecution().getWorkflowId();
+  }
+
+  // holds the onboarding PENDING until it is approved or rejected
+  public static class FakeEntityOnboarding implements EntityOnboarding {
+    private EntityOnboardingState state =
+        new EntityOnboardingState(
+            Workflow.getInfo().getWorkflowId(),
+            "value",
+            new Approval(ApprovalStatus.PENDING, null));
+
+    @Override
+    public void execute(OnboardEntityRequest args) {
+      Workflow.await(() -> state.approval().approvalStatus() != ApprovalStatus.PENDING);
+    }
+
+    @Override
+    public EntityOnboardingState getState() {
+      return state;
+    }
+
+    @Override
+    public void approve(ApproveEntityRequest cmd) {
+      decide(ApprovalStatus.APPROVED, cmd.comment());
+    }
+
+    @Override
+    public void reject(RejectEntityRequest cmd) {
+      decide(ApprovalStatus.REJECTED, cmd.comment());
+    }
+
+    @Override
+    public EntityOnboardingState approveEntity(ApproveEntityRequest cmd) {
+      approve(cmd);
+      return state;
+    }
+
+    @Override
+    public void validateApproveEntity(ApproveEntityRequest cmd) {}
+
+    @Override
+    public EntityOnboardingState rejectEntity(RejectEntityRequest cmd) {
+      reject(cmd);
+      return state;
+    }
+
+    @Override
+    public void validateRejectEntity(RejectEntityRequest cmd) {}
+
+    private void decide(ApprovalStatus status, String comment) {
+      var approval = new Approval(status, comment);
+      state = new EntityOnboardingState(state.id(), state.currentValue(), approval);
+    }
+  }
+
+  // records "<event> <approvalStatus>" for each event instead of writing to a response
+  private static class RecordingEmitter extends SseEmitter {
+    final List<String> events = new CopyOnWriteArrayList<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      String name = null;
+      String approvalStatus = null;
+      for (var part : builder.build()) {
+        if (part.getData() instanceof String text && text.startsWith("event:")) {
+          name = text.substring("event:".length(), text.indexOf('\n'));
+        } else if (part.getData() instanceof OnboardingsGetV1 state) {
+          approvalStatus = state.approvalStatus();
+        }
+      }
+      events.add(name + " " + approvalStatus);
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      completed.countDown();
+    }
+
+    void awaitEvent(String event) throws InterruptedException {
+      var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!events.contains(event) && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      Assertions.assertTrue(events.contains(event), "events: " + events);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Measures the CPU cost of deflating an `OnboardEntityRequest` whose `value` is a JSON blob,
+// and reports the bytes that would be stored per Payload (`rawBytes` vs `encodedBytes`).
+// `threshold = 2147483647` is the baseline: nothing is compressed.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeflatePayloadCodecBenchmark {
+  @Param({"256", "4096", "65536"})
+  int valueBytes;
+
+  @Param({"1024", "2147483647"})
+  int threshold;
+
+  private DeflatePayloadCodec codec;
+  private List<Payload> payloads;
+  private List<Payload> encoded;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Bytes {
+    public long rawBytes;
+    public long encodedBytes;
+  }
+
+  @Setup
+  public void setup() {
+    codec = new DeflatePayloadCodec(threshold);
+    var request =
+        new OnboardEntityRequest(
+            "entity-0001", jsonBlob(valueBytes), 7 * 86400, "deputy@example.com", false);
+    payloads = List.of(DefaultDataConverter.STANDARD_INSTANCE.toPayload(request).orElseThrow());
+    encoded = codec.encode(payloads);
+  }
+
+  @Benchmark
+  public List<Payload> encode(Bytes bytes) {
+    var result = codec.encode(payloads);
+    bytes.rawBytes += payloads.get(0).getSerializedSize();
+    bytes.encodedBytes += result.get(0).getSerializedSize();
+    return result;
+  }
+
+  @Benchmark
+  public List<Payload> decode() {
+    return codec.decode(encoded);
+  }
+
+  // repetitive keys with random values, like the CRM exports we receive
+  private static String jsonBlob(int size) {
+    var random = new Random(42);
+    var json = new StringBuilder("{\"attributes\":[");
+    while (json.length() < size) {
+      json.append(
+          String.format(
+              "{\"name\":\"attribute-%d\",\"value\":\"%08x\",\"verified\":%b},",
+              random.nextInt(100),
+              random.nextInt(),
+              random.nextBoolean()));
+    }
+    json.setLength(json.length() - 1);
+    return json.append("]}").toString();
+  }
+}
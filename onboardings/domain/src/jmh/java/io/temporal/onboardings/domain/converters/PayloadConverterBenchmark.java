@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Compares the JSON converter we ship by default with the opt-in Smile converter for the
+// messages a Worker (de)serializes most: the Workflow argument on every replay and the
+// `getState` Query result. `payloadBytes` reports the size of each encoded Payload.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadConverterBenchmark {
+  @Param({"json", "smile"})
+  String format;
+
+  @Param({"64", "4096"})
+  int valueBytes;
+
+  private DataConverter converter;
+  private OnboardEntityRequest request;
+  private EntityOnboardingState state;
+  private Payload requestPayload;
+  private Payload statePayload;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Bytes {
+    public long payloadBytes;
+  }
+
+  @Setup
+  public void setup() {
+    converter = ConvertersConfiguration.payloadConverter(format.equals("smile"));
+    var value = "{\"name\":\"attribute\",\"verified\":true}".repeat(valueBytes / 36 + 1);
+    request =
+        new OnboardEntityRequest("entity-0001", value, 7 * 86400, "deputy@example.com", false);
+    state =
+        new EntityOnboardingState(
+            "entity-0001", value, new Approval(ApprovalStatus.APPROVED, "looks good"));
+    requestPayload = converter.toPayload(request).orElseThrow();
+    statePayload = converter.toPayload(state).orElseThrow();
+  }
+
+  @Benchmark
+  public Payload encodeRequest(Bytes bytes) {
+    var payload = converter.toPayload(request).orElseThrow();
+    bytes.payloadBytes += payload.getSerializedSize();
+    return payload;
+  }
+
+  @Benchmark
+  public OnboardEntityRequest decodeRequest() {
+    return converter.fromPayload(
+        requestPayload, OnboardEntityRequest.class, OnboardEntityRequest.class);
+  }
+
+  @Benchmark
+  public Payload encodeState(Bytes bytes) {
+    var payload = converter.toPayload(state).orElseThrow();
+    bytes.payloadBytes += payload.getSerializedSize();
+    return payload;
+  }
+
+  @Benchmark
+  public EntityOnboardingState decodeState() {
+    return converter.fromPayload(
+        statePayload, EntityOnboardingState.class, EntityOnboardingState.class);
+  }
+}
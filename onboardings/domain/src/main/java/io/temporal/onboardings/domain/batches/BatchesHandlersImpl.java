@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.batches;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import io.temporal.onboardings.domain.messages.queries.BatchEntity;
+import io.temporal.onboardings.domain.messages.queries.FetchBatchEntitiesRequest;
+import io.temporal.onboardings.domain.messages.queries.FetchBatchEntitiesResponse;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import org.springframework.stereotype.Component;
+
+// Reads a page of a batch source starting at a byte offset.
+// The Workflow only ever holds a cursor into the source, so a batch of millions of entities
+// never puts more than one page into its history.
+@Component("batches-handlers")
+public class BatchesHandlersImpl implements BatchesHandlers {
+  private final ObjectMapper objectMapper;
+
+  public BatchesHandlersImpl(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public FetchBatchEntitiesResponse fetchBatchEntities(FetchBatchEntitiesRequest cmd) {
+    var entities = new ArrayList<BatchEntity>(cmd.limit());
+    try (var channel = FileChannel.open(Path.of(cmd.source()), StandardOpenOption.READ)) {
+      var in = new BufferedInputStream(Channels.newInputStream(channel.position(cmd.cursor())));
+      var line = new ByteArrayOutputStream();
+      var position = cmd.cursor();
+      int b = 0;
+      while (entities.size() < cmd.limit() && b != -1) {
+        b = in.read();
+        if (b != -1) {
+          position++;
+          if (b != '\n') {
+            line.write(b);
+            continue;
+          }
+        }
+        if (!line.toString(StandardCharsets.UTF_8).isBlank()) {
+          entities.add(toEntity(line.toByteArray(), position));
+        }
+        line.reset();
+      }
+      return new FetchBatchEntitiesResponse(entities, position >= channel.size());
+    } catch (NoSuchFileException e) {
+      throw ApplicationFailure.newNonRetryableFailureWithCause(
+          String.format("Batch source %s does not exist", cmd.source()),
+          Errors.INVALID_ARGS.name(),
+          e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private BatchEntity toEntity(byte[] line, long nextCursor) {
+    try {
+      JsonNode json = objectMapper.readTree(line);
+      return new BatchEntity(
+          json.path("id").asText(null), json.path("value").asText(null), nextCursor);
+    } catch (IOException e) {
+      // a malformed line is counted as a failure by the batch rather than stalling it
+      return new BatchEntity(null, null, nextCursor);
+    }
+  }
+}
@@ -25,9 +25,51 @@
 package io.temporal.onboardings.domain.clients.crm;
 
 import java.net.ConnectException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public interface CrmClient {
   void registerCustomer(String id, String value) throws ConnectException;
 
-  String getCustomerById(String id);
+  // Bulk upsert. Returns the customers the CRM rejected, keyed by id (empty when all succeeded).
+  // A ConnectException means the call as a whole failed; some customers may have been
+  // registered, which is safe since registration is an upsert.
+  default Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers)
+      throws ConnectException {
+    var rejected = new HashMap<String, RuntimeException>();
+    for (var customer : customers) {
+      try {
+        registerCustomer(customer.id(), customer.value());
+      } catch (RuntimeException e) {
+        rejected.put(customer.id(), e);
+      }
+    }
+    return rejected;
+  }
+
+  // Non-blocking registration; a ConnectException completes the future exceptionally.
+  // Clients without a native async transport run the blocking call on the common pool.
+  default CompletableFuture<Void> registerCustomerAsync(String id, String value) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            registerCustomer(id, value);
+          } catch (ConnectException e) {
+            throw new CompletionException(e);
+          }
+        });
+  }
+
+  // Like registration, a ConnectException means the CRM could not be reached.
+  String getCustomerById(String id) throws ConnectException;
+
+  // At most `limit` registered customer ids, used to seed worker-local caches; callers ask for
+  // one more than they can hold to learn the CRM is too big for them.
+  // Clients that cannot enumerate the CRM return an empty list.
+  default List<String> listCustomerIds(int limit) throws ConnectException {
+    return List.of();
+  }
 }
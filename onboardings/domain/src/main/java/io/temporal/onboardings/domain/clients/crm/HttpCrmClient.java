@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.clients.crm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+// `CrmClient` over the CRM's HTTP API (see the test `StubCrmServer` for the contract).
+// Built on the JDK `HttpClient`, which keeps connections alive and pools them, and negotiates
+// HTTP/2 when the CRM supports it so concurrent requests share one connection.
+// At most `max-concurrent-requests` are in flight; further requests wait for a slot without
+// holding a thread. 4xx/5xx responses surface as Spring's `HttpClientErrorException` /
+// `HttpServerErrorException`, and failing to connect as `ConnectException`.
+@Component
+@ConditionalOnProperty(name = "spring.curriculum.crm.client", havingValue = "http")
+public class HttpCrmClient implements CrmClient {
+  Logger logger = LoggerFactory.getLogger(HttpCrmClient.class);
+
+  private final HttpClient httpClient;
+  private final URI baseUri;
+  private final Duration requestTimeout;
+  private final Permits permits;
+
+  public HttpCrmClient(
+      @Value("${spring.curriculum.crm.http.base-url:http://localhost:8090}") URI baseUri,
+      @Value("${spring.curriculum.crm.http.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${spring.curriculum.crm.http.request-timeout:5s}") Duration requestTimeout,
+      @Value("${spring.curriculum.crm.http.max-concurrent-requests:64}") int maxConcurrent) {
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+    this.baseUri = baseUri;
+    this.requestTimeout = requestTimeout;
+    this.permits = new Permits(maxConcurrent);
+  }
+
+  @Override
+  public void registerCustomer(String id, String value) throws ConnectException {
+    join(registerCustomerAsync(id, value));
+  }
+
+  @Override
+  public CompletableFuture<Void> registerCustomerAsync(String id, String value) {
+    var request =
+        newRequest("/customers/" + encode(id))
+            .PUT(HttpRequest.BodyPublishers.ofString(value, StandardCharsets.UTF_8))
+            .build();
+    return send(request).thenApply(ignored -> null);
+  }
+
+  // One bulk request for the whole batch, which the CRM accepts or rejects as a unit.
+  @Override
+  public Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers)
+      throws ConnectException {
+    if (customers.isEmpty()) {
+      return Map.of();
+    }
+    var body =
+        customers.stream()
+            .map(c -> encode(c.id()) + "=" + encode(c.value()))
+            .collect(Collectors.joining("&"));
+    var request =
+        newRequest("/customers")
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+    try {
+      join(send(request));
+      return Map.of();
+    } catch (RuntimeException e) {
+      var rejected = new HashMap<String, RuntimeException>();
+      customers.forEach(c -> rejected.put(c.id(), e));
+      return rejected;
+    }
+  }
+
+  @Override
+  public String getCustomerById(String id) throws ConnectException {
+    return join(send(newRequest("/customers/" + encode(id)).GET().build()));
+  }
+
+  @Override
+  public List<String> listCustomerIds(int limit) throws ConnectException {
+    var body = join(send(newRequest("/customers?limit=" + limit).GET().build()));
+    return body.isEmpty() ? List.of() : List.of(body.split("\n"));
+  }
+
+  private HttpRequest.Builder newRequest(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(requestTimeout);
+  }
+
+  private CompletableFuture<String> send(HttpRequest request) {
+    return permits
+        .acquire()
+        .thenCompose(
+            ignored ->
+                httpClient.sendAsync(
+                    request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))
+        .whenComplete((ignored, failure) -> permits.release())
+        .thenApply(
+            response -> {
+              var status = HttpStatus.valueOf(response.statusCode());
+              if (status.is4xxClientError()) {
+                throw new HttpClientErrorException(status);
+              }
+              if (status.is5xxServerError()) {
+                throw new HttpServerErrorException(status);
+              }
+              return response.body();
+            });
+  }
+
+  // unwraps the async failure into what the blocking `CrmClient` methods throw
+  private static <T> T join(CompletableFuture<T> result) throws ConnectException {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      var cause = e.getCause();
+      if (cause instanceof ConnectException ce) {
+        throw ce;
+      }
+      if (cause instanceof HttpConnectTimeoutException) {
+        var ce = new ConnectException(cause.getMessage());
+        ce.initCause(cause);
+        throw ce;
+      }
+      if (cause instanceof IOException io) {
+        throw new UncheckedIOException(io);
+      }
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+
+  private static String encode(String id) {
+    return URLEncoder.encode(id, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  // Counting semaphore whose waiters are futures rather than blocked threads.
+  static class Permits {
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+
+    Permits(int available) {
+      this.available = available;
+    }
+
+    CompletableFuture<Void> acquire() {
+      synchronized (this) {
+        if (available > 0) {
+          available--;
+          return CompletableFuture.completedFuture(null);
+        }
+        var waiter = new CompletableFuture<Void>();
+        waiters.add(waiter);
+        return waiter;
+      }
+    }
+
+    void release() {
+      CompletableFuture<Void> next;
+      synchronized (this) {
+        next = waiters.poll();
+        if (next == null) {
+          available++;
+          return;
+        }
+      }
+      // hand the permit straight to the next waiter
+      next.complete(null);
+    }
+  }
+}
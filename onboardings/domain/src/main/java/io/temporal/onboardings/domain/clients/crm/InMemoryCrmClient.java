@@ -24,19 +24,54 @@
 
 package io.temporal.onboardings.domain.clients.crm;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
-import java.util.Dictionary;
-import java.util.Hashtable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 
+// Local stand-in for the CRM, good enough to load-test the integration path.
+// Reads never block: customers live in a `ConcurrentHashMap`. With `log.enabled` every
+// registration is also appended to a memory-mapped log that is replayed on startup, so
+// idempotency checks keep working across Worker restarts. The log is off by default: it only
+// makes sense for local load testing, and its default `path` is not durable.
 @Component
-public class InMemoryCrmClient implements CrmClient {
+@ConditionalOnProperty(
+    name = "spring.curriculum.crm.client",
+    havingValue = "in-memory",
+    matchIfMissing = true)
+public class InMemoryCrmClient implements CrmClient, DisposableBean {
   Logger logger = LoggerFactory.getLogger(InMemoryCrmClient.class);
-  Dictionary<String, String> entities = new Hashtable<>();
+  private final ConcurrentHashMap<String, String> entities = new ConcurrentHashMap<>();
+  private final AppendLog log;
+
+  public InMemoryCrmClient(
+      @Value("${spring.curriculum.crm.log.enabled:false}") boolean logEnabled,
+      @Value("${spring.curriculum.crm.log.path:${java.io.tmpdir}/onboardings/crm.log}") Path path,
+      @Value("${spring.curriculum.crm.log.segment-bytes:16777216}") int segmentBytes) {
+    this.log = logEnabled ? new AppendLog(path, segmentBytes) : null;
+    if (log != null) {
+      log.replay(entities);
+      logger.info("Restored {} CRM customers from {}", entities.size(), path);
+    }
+  }
 
   @Override
   public void registerCustomer(String id, String value) throws ConnectException {
@@ -44,6 +79,28 @@ public class InMemoryCrmClient implements CrmClient {
       throw new ConnectException("<Spoof>: Failed to connect to API");
     }
     logger.info("register customer with id {}/{}", id, value);
+    if (log != null) {
+      log.append(id, value);
+    }
+    entities.put(id, value);
+  }
+
+  @Override
+  public Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers)
+      throws ConnectException {
+    for (var customer : customers) {
+      if (customer.value().contains("timeout")) {
+        throw new ConnectException("<Spoof>: Failed to connect to API");
+      }
+    }
+    logger.info("register {} customers", customers.size());
+    for (var customer : customers) {
+      if (log != null) {
+        log.append(customer.id(), customer.value());
+      }
+      entities.put(customer.id(), customer.value());
+    }
+    return Map.of();
   }
 
   @Override
@@ -54,4 +111,153 @@ public class InMemoryCrmClient implements CrmClient {
     }
     return value;
   }
+
+  @Override
+  public List<String> listCustomerIds(int limit) {
+    return entities.keySet().stream().limit(limit).toList();
+  }
+
+  @Override
+  public void destroy() {
+    if (log != null) {
+      log.close();
+    }
+  }
+
+  // Length-prefixed `id`/`value` records in fixed-size memory-mapped segments
+  // (`crm.log.0`, `crm.log.1`, ...), so the log grows by mapping another segment rather than
+  // remapping one ever larger region (a single mapping cannot exceed 2GB).
+  // Appends are not serialized: each one claims its byte range with an atomic add and writes it
+  // with absolute puts; only rolling to the next segment takes a lock. The id length is written
+  // last and marks the record complete. Unwritten space is zeroed, so a zero id length ends a
+  // segment. A crash can lose records that were claimed but not finished, along with any
+  // records after them in that segment.
+  static class AppendLog {
+    private final Path path;
+    private final int segmentBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private volatile Segment current;
+
+    AppendLog(Path path, int segmentBytes) {
+      this.path = path;
+      this.segmentBytes = segmentBytes;
+      try {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void replay(ConcurrentHashMap<String, String> into) {
+      var index = 0;
+      while (Files.exists(segmentPath(index))) {
+        var segment = map(index);
+        segment.replay(into);
+        segments.add(segment);
+        index++;
+      }
+      current = segments.isEmpty() ? map(0) : segments.remove(segments.size() - 1);
+      segments.add(current);
+    }
+
+    void append(String id, String value) {
+      var idBytes = id.getBytes(StandardCharsets.UTF_8);
+      var valueBytes = value.getBytes(StandardCharsets.UTF_8);
+      var length = 2 * Integer.BYTES + idBytes.length + valueBytes.length;
+      if (length > segmentBytes) {
+        throw new IllegalArgumentException("CRM log record exceeds the segment size");
+      }
+      while (true) {
+        var segment = current;
+        var offset = segment.claim(length);
+        if (offset >= 0) {
+          segment.write(offset, idBytes, valueBytes);
+          return;
+        }
+        roll(segment);
+      }
+    }
+
+    synchronized void close() {
+      segments.forEach(s -> s.buffer.force());
+    }
+
+    private synchronized void roll(Segment full) {
+      if (current == full) {
+        current = map(full.index + 1);
+        segments.add(current);
+      }
+    }
+
+    private Segment map(int index) {
+      // the mapping stays valid after its channel is closed
+      try (var channel =
+          FileChannel.open(
+              segmentPath(index),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        return new Segment(
+            index, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes), segmentBytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private Path segmentPath(int index) {
+      return path.resolveSibling(path.getFileName() + "." + index);
+    }
+  }
+
+  private static class Segment {
+    final int index;
+    final MappedByteBuffer buffer;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+
+    Segment(int index, MappedByteBuffer buffer, int capacity) {
+      this.index = index;
+      this.buffer = buffer;
+      this.capacity = capacity;
+    }
+
+    // offset of `length` bytes reserved for the caller, or -1 once the segment is full
+    long claim(int length) {
+      var end = tail.addAndGet(length);
+      return end > capacity ? -1 : end - length;
+    }
+
+    void write(long offset, byte[] id, byte[] value) {
+      var at = (int) offset;
+      buffer.put(at + Integer.BYTES, id);
+      buffer.putInt(at + Integer.BYTES + id.length, value.length);
+      buffer.put(at + 2 * Integer.BYTES + id.length, value);
+      buffer.putInt(at, id.length);
+    }
+
+    void replay(ConcurrentHashMap<String, String> into) {
+      var at = 0;
+      while (at + 2 * Integer.BYTES <= capacity) {
+        var idLength = buffer.getInt(at);
+        if (idLength <= 0 || at + 2 * Integer.BYTES + idLength > capacity) {
+          break;
+        }
+        var valueLength = buffer.getInt(at + Integer.BYTES + idLength);
+        var end = at + 2 * Integer.BYTES + idLength + valueLength;
+        if (valueLength < 0 || end > capacity) {
+          break;
+        }
+        into.put(read(at + Integer.BYTES, idLength), read(end - valueLength, valueLength));
+        at = end;
+      }
+      // appends resume after the last complete record, overwriting anything torn
+      tail.set(at);
+    }
+
+    private String read(int at, int length) {
+      var bytes = new byte[length];
+      buffer.get(at, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
 }
@@ -24,6 +24,24 @@
 
 package io.temporal.onboardings.domain.clients.email;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface EmailClient {
   void sendEmail(String email, String body);
+
+  // Batched submission. Returns the messages that were not delivered, keyed by message id
+  // (empty when all were delivered).
+  default Map<String, RuntimeException> sendEmails(List<EmailMessage> messages) {
+    var undelivered = new HashMap<String, RuntimeException>();
+    for (var message : messages) {
+      try {
+        sendEmail(message.email(), message.body());
+      } catch (RuntimeException e) {
+        undelivered.put(message.id(), e);
+      }
+    }
+    return undelivered;
+  }
 }
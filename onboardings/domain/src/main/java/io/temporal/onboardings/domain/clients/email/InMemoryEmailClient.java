@@ -24,8 +24,9 @@
 
 package io.temporal.onboardings.domain.clients.email;
 
-import java.util.Dictionary;
-import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -34,11 +35,18 @@ import org.springframework.stereotype.Component;
 public class InMemoryEmailClient implements EmailClient {
 
   Logger logger = LoggerFactory.getLogger(InMemoryEmailClient.class);
-  Dictionary<String, String> emails = new Hashtable<>();
+  Map<String, String> emails = new ConcurrentHashMap<>();
 
   @Override
   public void sendEmail(String email, String body) {
     logger.info("sending email for {} with {}", email, body);
     emails.put(email, body);
   }
+
+  @Override
+  public Map<String, RuntimeException> sendEmails(List<EmailMessage> messages) {
+    logger.info("sending {} emails", messages.size());
+    messages.forEach(m -> emails.put(m.email(), m.body()));
+    return Map.of();
+  }
 }
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+// Moves Payloads whose serialized size is at least `thresholdBytes` into a `LocalBlobStore`
+// and leaves only the SHA-256 of their content in history, marked with the
+// `binary/claim-check` encoding. Identical values (eg an unchanged `value` carried across
+// continue-as-new) hash to the same blob, so they are stored once.
+// Every API node and Worker must be able to read the same blob store.
+public class ClaimCheckPayloadCodec implements PayloadCodec {
+  static final String ENCODING = "binary/claim-check";
+  private static final ByteString ENCODING_BYTES =
+      ByteString.copyFrom(ENCODING, StandardCharsets.UTF_8);
+
+  private final LocalBlobStore blobStore;
+  private final int thresholdBytes;
+
+  public ClaimCheckPayloadCodec(LocalBlobStore blobStore, int thresholdBytes) {
+    this.blobStore = blobStore;
+    this.thresholdBytes = thresholdBytes;
+  }
+
+  @Nonnull
+  @Override
+  public List<Payload> encode(@Nonnull List<Payload> payloads) {
+    return payloads.stream().map(this::encode).toList();
+  }
+
+  @Nonnull
+  @Override
+  public List<Payload> decode(@Nonnull List<Payload> payloads) {
+    return payloads.stream().map(this::decode).toList();
+  }
+
+  private Payload encode(Payload payload) {
+    if (payload.getSerializedSize() < thresholdBytes) {
+      return payload;
+    }
+    var blob = payload.toByteArray();
+    var key = sha256(blob);
+    blobStore.put(key, blob);
+    return Payload.newBuilder()
+        .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+        .setData(ByteString.copyFrom(key, StandardCharsets.UTF_8))
+        .build();
+  }
+
+  private Payload decode(Payload payload) {
+    if (!ENCODING_BYTES.equals(payload.getMetadataMap().get(EncodingKeys.METADATA_ENCODING_KEY))) {
+      return payload;
+    }
+    var key = payload.getData().toStringUtf8();
+    var blob =
+        blobStore
+            .get(key)
+            .orElseThrow(() -> new PayloadCodecException("Missing claim-check blob " + key));
+    try {
+      return Payload.parseFrom(blob);
+    } catch (InvalidProtocolBufferException e) {
+      throw new PayloadCodecException(e);
+    }
+  }
+
+  private static String sha256(byte[] blob) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(blob));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
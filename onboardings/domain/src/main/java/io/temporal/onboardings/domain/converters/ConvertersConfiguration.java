@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.common.converter.ByteArrayPayloadConverter;
+import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.JacksonJsonPayloadConverter;
+import io.temporal.common.converter.NullPayloadConverter;
+import io.temporal.common.converter.ProtobufJsonPayloadConverter;
+import io.temporal.common.converter.ProtobufPayloadConverter;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+// The Temporal Spring Boot starter hands the `mainDataConverter` bean to both the
+// WorkflowClient and the Workers, so the API and the Workers must both import this
+// configuration to read each other's Payloads.
+@ComponentScan
+@Configuration
+public class ConvertersConfiguration {
+
+  @Bean
+  public DeflatePayloadCodec deflatePayloadCodec(
+      @Value("${spring.curriculum.codecs.deflate-threshold-bytes:1024}") int thresholdBytes) {
+    return new DeflatePayloadCodec(thresholdBytes);
+  }
+
+  // Offloaded Payloads are only as durable as `path`, so offloading refuses to start on the
+  // fallback location. A disabled claim-check still needs a store to resolve references.
+  @Bean
+  public LocalBlobStore claimCheckBlobStore(
+      @Value("${spring.curriculum.codecs.claim-check.enabled:false}") boolean claimCheckEnabled,
+      @Value("${spring.curriculum.codecs.claim-check.path:}") String path,
+      @Value("${spring.curriculum.codecs.claim-check.cache-max-bytes:67108864}")
+          long cacheMaxBytes) {
+    var tmpDir = Path.of(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize();
+    if (claimCheckEnabled
+        && (path.isBlank() || Path.of(path).toAbsolutePath().normalize().startsWith(tmpDir))) {
+      throw new IllegalStateException(
+          "spring.curriculum.codecs.claim-check.path must name a durable directory shared by"
+              + " every API node and Worker when the claim-check is enabled");
+    }
+    var blobs = path.isBlank() ? tmpDir.resolve("onboardings/blobs") : Path.of(path);
+    return new LocalBlobStore(blobs, cacheMaxBytes);
+  }
+
+  @Bean
+  public DataConverter mainDataConverter(
+      DeflatePayloadCodec deflatePayloadCodec,
+      LocalBlobStore claimCheckBlobStore,
+      @Value("${spring.curriculum.codecs.claim-check.enabled:false}") boolean claimCheckEnabled,
+      @Value("${spring.curriculum.codecs.claim-check.threshold-bytes:131072}")
+          int claimCheckThresholdBytes,
+      @Value("${spring.curriculum.codecs.smile.enabled:false}") boolean smileEnabled) {
+    // Codecs encode in reverse list order, so Payloads are deflated first and only those still
+    // above the claim-check threshold are offloaded (compressed) to the blob store.
+    // A disabled claim-check never offloads but still resolves references written elsewhere.
+    var claimCheckPayloadCodec =
+        new ClaimCheckPayloadCodec(
+            claimCheckBlobStore, claimCheckEnabled ? claimCheckThresholdBytes : Integer.MAX_VALUE);
+    return new CodecDataConverter(
+        payloadConverter(smileEnabled), List.of(claimCheckPayloadCodec, deflatePayloadCodec));
+  }
+
+  // Same converters as `DefaultDataConverter.newDefaultInstance()`, with Smile ahead of JSON
+  // so it gets the first chance at our message records.
+  static DataConverter payloadConverter(boolean smileEnabled) {
+    return new DefaultDataConverter(
+        new NullPayloadConverter(),
+        new ByteArrayPayloadConverter(),
+        new ProtobufJsonPayloadConverter(),
+        new ProtobufPayloadConverter(),
+        new SmilePayloadConverter(smileEnabled),
+        new JacksonJsonPayloadConverter());
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nonnull;
+
+// Compresses Payloads whose serialized size is at least `thresholdBytes` with the JDK Deflater.
+// The whole original Payload (metadata included) is compressed and wrapped in a new Payload
+// marked with the `binary/deflate` encoding, so decoding restores it exactly.
+// Payloads without that marker (small ones, and everything written before this codec existed)
+// pass through untouched in both directions.
+public class DeflatePayloadCodec implements PayloadCodec {
+  static final String ENCODING = "binary/deflate";
+  private static final ByteString ENCODING_BYTES =
+      ByteString.copyFrom(ENCODING, StandardCharsets.UTF_8);
+
+  private final int thresholdBytes;
+  private final int level;
+
+  public DeflatePayloadCodec(int thresholdBytes) {
+    // favour CPU: the strings we see are repetitive JSON that compresses well at low levels
+    this(thresholdBytes, Deflater.BEST_SPEED);
+  }
+
+  public DeflatePayloadCodec(int thresholdBytes, int level) {
+    this.thresholdBytes = thresholdBytes;
+    this.level = level;
+  }
+
+  @Nonnull
+  @Override
+  public List<Payload> encode(@Nonnull List<Payload> payloads) {
+    return payloads.stream().map(this::encode).toList();
+  }
+
+  @Nonnull
+  @Override
+  public List<Payload> decode(@Nonnull List<Payload> payloads) {
+    return payloads.stream().map(this::decode).toList();
+  }
+
+  private Payload encode(Payload payload) {
+    var size = payload.getSerializedSize();
+    if (size < thresholdBytes) {
+      return payload;
+    }
+    var compressed = deflate(payload.toByteArray());
+    if (compressed.size() >= size) {
+      // incompressible (eg already encrypted or compressed); not worth the decode cost
+      return payload;
+    }
+    return Payload.newBuilder()
+        .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+        .setData(compressed)
+        .build();
+  }
+
+  private Payload decode(Payload payload) {
+    if (!ENCODING_BYTES.equals(payload.getMetadataMap().get(EncodingKeys.METADATA_ENCODING_KEY))) {
+      return payload;
+    }
+    try {
+      return Payload.parseFrom(inflate(payload.getData()));
+    } catch (DataFormatException | InvalidProtocolBufferException e) {
+      throw new PayloadCodecException(e);
+    }
+  }
+
+  private ByteString deflate(byte[] input) {
+    var deflater = new Deflater(level);
+    try {
+      deflater.setInput(input);
+      deflater.finish();
+      var out = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+      var buffer = new byte[8 * 1024];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return ByteString.copyFrom(out.toByteArray());
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private byte[] inflate(ByteString input) throws DataFormatException {
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(input.toByteArray());
+      var out = new ByteArrayOutputStream(input.size() * 4);
+      var buffer = new byte[8 * 1024];
+      while (!inflater.finished()) {
+        var n = inflater.inflate(buffer);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("Truncated deflate payload");
+        }
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } finally {
+      inflater.end();
+    }
+  }
+}
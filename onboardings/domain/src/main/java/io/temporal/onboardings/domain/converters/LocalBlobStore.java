@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Content-addressed blob store on a local (or shared) filesystem.
+// Blobs are immutable and named by their key, so writing the same key twice is a no-op and
+// concurrent writers of the same content cannot corrupt each other. Recently read or written
+// blobs are kept in an LRU cache bounded by `cacheMaxBytes`.
+public class LocalBlobStore {
+  private final Path root;
+  private final long cacheMaxBytes;
+  private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes;
+
+  public LocalBlobStore(Path root, long cacheMaxBytes) {
+    this.root = root;
+    this.cacheMaxBytes = cacheMaxBytes;
+    try {
+      Files.createDirectories(root);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void put(String key, byte[] blob) {
+    var path = pathOf(key);
+    if (cached(key).isEmpty() && !Files.exists(path)) {
+      try {
+        Files.createDirectories(path.getParent());
+        var tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+        try {
+          Files.write(tmp, blob);
+          Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+          // another writer stored the same content first
+        } finally {
+          Files.deleteIfExists(tmp);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    cache(key, blob);
+  }
+
+  public Optional<byte[]> get(String key) {
+    var blob = cached(key);
+    if (blob.isPresent()) {
+      return blob;
+    }
+    try {
+      var bytes = Files.readAllBytes(pathOf(key));
+      cache(key, bytes);
+      return Optional.of(bytes);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Path pathOf(String key) {
+    // fan out so no single directory collects millions of entries
+    return root.resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  private synchronized Optional<byte[]> cached(String key) {
+    return Optional.ofNullable(cache.get(key));
+  }
+
+  private synchronized void cache(String key, byte[] blob) {
+    if (blob.length > cacheMaxBytes) {
+      return;
+    }
+    var previous = cache.put(key, blob);
+    if (previous == null) {
+      cachedBytes += blob.length;
+    }
+    var eldest = cache.entrySet().iterator();
+    while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+      Map.Entry<String, byte[]> entry = eldest.next();
+      cachedBytes -= entry.getValue().length;
+      eldest.remove();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DataConverterException;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.common.converter.PayloadConverter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+// Writes the records in `io.temporal.onboardings.domain.messages` as Jackson Smile (binary
+// JSON) instead of JSON text. Anything else is left to the converters after this one.
+// Decoding is chosen by the Payload's encoding, so JSON Payloads (including every one written
+// before this converter was enabled) still go to the JSON converter, and a node with `encode`
+// off can still read Smile Payloads written by nodes that have it on.
+public class SmilePayloadConverter implements PayloadConverter {
+  static final String ENCODING = "binary/smile";
+  private static final String MESSAGES_PACKAGE = "io.temporal.onboardings.domain.messages";
+  private static final ByteString ENCODING_BYTES =
+      ByteString.copyFrom(ENCODING, StandardCharsets.UTF_8);
+
+  private final SmileMapper mapper =
+      SmileMapper.builder()
+          .findAndAddModules()
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+          .build();
+  private final boolean encode;
+
+  public SmilePayloadConverter(boolean encode) {
+    this.encode = encode;
+  }
+
+  @Override
+  public String getEncodingType() {
+    return ENCODING;
+  }
+
+  @Override
+  public Optional<Payload> toData(Object value) throws DataConverterException {
+    if (!encode || value == null || !value.getClass().getName().startsWith(MESSAGES_PACKAGE)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(
+          Payload.newBuilder()
+              .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+              .setData(ByteString.copyFrom(mapper.writeValueAsBytes(value)))
+              .build());
+    } catch (JsonProcessingException e) {
+      throw new DataConverterException(e);
+    }
+  }
+
+  @Override
+  public <T> T fromData(Payload content, Class<T> valueClass, Type valueType)
+      throws DataConverterException {
+    try {
+      return mapper.readValue(
+          content.getData().toByteArray(), mapper.getTypeFactory().constructType(valueType));
+    } catch (IOException e) {
+      throw new DataConverterException(e);
+    }
+  }
+}
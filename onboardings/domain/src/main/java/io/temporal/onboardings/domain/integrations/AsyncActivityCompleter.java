@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityCompletionException;
+import io.temporal.client.WorkflowClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Completes Activities that returned without a result (`doNotCompleteOnReturn`) once the work
+// they handed off is done, so the Activity slot is released while that work is in flight.
+// Until then it heartbeats on the Activity's behalf; a heartbeat that finds the Activity
+// cancelled or timed out cancels the outstanding work.
+// Heartbeats and completions are blocking calls to the Temporal service, so they run on pools
+// of their own rather than on whichever thread finished the work (eg the CRM batch flush or
+// the HTTP client's executor). When the completion queue is full the finishing thread
+// completes the Activity itself, slowing down the work instead of dropping completions.
+@Component
+public class AsyncActivityCompleter implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(AsyncActivityCompleter.class);
+
+  private static final int COMPLETION_QUEUE_CAPACITY = 10_000;
+
+  private final ActivityCompletionClient completionClient;
+  private final Duration heartbeatInterval;
+  private final ScheduledExecutorService heartbeats;
+  private final ThreadPoolExecutor completions;
+
+  @Autowired
+  public AsyncActivityCompleter(
+      WorkflowClient workflowClient,
+      @Value("${spring.curriculum.crm.async.heartbeat-interval:2s}") Duration heartbeatInterval,
+      @Value("${spring.curriculum.crm.async.heartbeat-threads:2}") int heartbeatThreads,
+      @Value("${spring.curriculum.crm.async.completion-threads:8}") int completionThreads) {
+    this(
+        workflowClient.newActivityCompletionClient(),
+        heartbeatInterval,
+        heartbeatThreads,
+        completionThreads);
+  }
+
+  AsyncActivityCompleter(
+      ActivityCompletionClient completionClient,
+      Duration heartbeatInterval,
+      int heartbeatThreads,
+      int completionThreads) {
+    this.completionClient = completionClient;
+    this.heartbeatInterval = heartbeatInterval;
+    this.heartbeats =
+        Executors.newScheduledThreadPool(heartbeatThreads, daemon("async-activity-heartbeats"));
+    this.completions =
+        new ThreadPoolExecutor(
+            completionThreads,
+            completionThreads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(COMPLETION_QUEUE_CAPACITY),
+            daemon("async-activity-completions"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  // `failureMapper` turns the cause of a failed `work` into the Activity's failure
+  public void completeWhenDone(
+      byte[] taskToken, CompletableFuture<?> work, Function<Throwable, Exception> failureMapper) {
+    var heartbeat =
+        heartbeats.scheduleAtFixedRate(
+            () -> {
+              try {
+                completionClient.heartbeat(taskToken, null);
+              } catch (ActivityCompletionException e) {
+                logger.info("Abandoning async Activity: {}", e.getMessage());
+                work.cancel(false);
+              }
+            },
+            heartbeatInterval.toMillis(),
+            heartbeatInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    work.whenCompleteAsync(
+        (result, failure) -> {
+          heartbeat.cancel(false);
+          try {
+            if (failure == null) {
+              completionClient.complete(taskToken, result);
+            } else if (!work.isCancelled()) {
+              var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+              completionClient.completeExceptionally(taskToken, failureMapper.apply(cause));
+            }
+          } catch (ActivityCompletionException e) {
+            // the Activity timed out or was cancelled while the work was in flight
+            logger.warn("Failed to complete async Activity: {}", e.getMessage());
+          }
+        },
+        completions);
+  }
+
+  @Override
+  public void destroy() {
+    heartbeats.shutdownNow();
+    completions.shutdownNow();
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return r -> {
+      var thread = new Thread(r, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Sheds CRM calls during brownouts instead of sending them at full Activity concurrency.
+// An AIMD limiter caps concurrent calls: each fast, successful call raises the limit by
+// 1/limit (about one per round trip) and each slow or failed call cuts it by 10%.
+// Only 5xx responses, timeouts and connection failures count as failed calls. A 4xx means the
+// CRM answered and the request itself was at fault, so callers report it as a success; this
+// holds for lookups and registrations alike.
+// A circuit breaker opens after `failure-threshold` consecutive failures, rejects everything
+// for `open-duration`, then lets a single probe through to decide whether to close again.
+// Rejected calls fail with a retryable SERVICE_OVERLOADED failure whose next retry delay is
+// how long the guard expects to keep rejecting.
+@Component
+public class CrmCallGuard {
+  public enum CircuitState {
+    CLOSED,
+    HALF_OPEN,
+    OPEN,
+  }
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final boolean enabled;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetLatencyNanos;
+  private final int failureThreshold;
+  private final Duration openDuration;
+
+  private double limit;
+  private int inFlight;
+  private CircuitState state = CircuitState.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+  private boolean probeInFlight;
+
+  public CrmCallGuard(
+      MeterRegistry meterRegistry,
+      @Value("${spring.curriculum.crm.guard.enabled:false}") boolean enabled,
+      @Value("${spring.curriculum.crm.guard.initial-limit:20}") int initialLimit,
+      @Value("${spring.curriculum.crm.guard.min-limit:1}") int minLimit,
+      @Value("${spring.curriculum.crm.guard.max-limit:200}") int maxLimit,
+      @Value("${spring.curriculum.crm.guard.target-latency:250ms}") Duration targetLatency,
+      @Value("${spring.curriculum.crm.guard.failure-threshold:5}") int failureThreshold,
+      @Value("${spring.curriculum.crm.guard.open-duration:10s}") Duration openDuration) {
+    this.enabled = enabled;
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetLatencyNanos = targetLatency.toNanos();
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    Gauge.builder("crm.guard.limit", this, CrmCallGuard::limit)
+        .description("Concurrent CRM calls currently allowed")
+        .register(meterRegistry);
+    Gauge.builder("crm.guard.in_flight", this, CrmCallGuard::inFlight)
+        .description("CRM calls currently in flight")
+        .register(meterRegistry);
+    Gauge.builder("crm.guard.circuit_state", this, g -> g.state().ordinal())
+        .description("0 = closed, 1 = half-open, 2 = open")
+        .register(meterRegistry);
+  }
+
+  public synchronized double limit() {
+    return limit;
+  }
+
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  public synchronized CircuitState state() {
+    return state;
+  }
+
+  // Throws a retryable SERVICE_OVERLOADED ApplicationFailure when the call must not be made.
+  // Otherwise the caller must report the outcome of its call on the returned Permit.
+  public synchronized Permit acquire() {
+    var now = System.nanoTime();
+    if (!enabled) {
+      return new Permit(now, false);
+    }
+    if (state == CircuitState.OPEN) {
+      var remaining = openedAtNanos + openDuration.toNanos() - now;
+      if (remaining > 0) {
+        throw overloaded("CRM circuit is open.", Duration.ofNanos(remaining));
+      }
+      state = CircuitState.HALF_OPEN;
+    }
+    var probe = false;
+    if (state == CircuitState.HALF_OPEN) {
+      if (probeInFlight) {
+        throw overloaded("CRM circuit is half-open.", Duration.ofNanos(targetLatencyNanos));
+      }
+      probeInFlight = probe = true;
+    } else if (inFlight >= (int) limit) {
+      throw overloaded("CRM concurrency limit reached.", Duration.ofNanos(targetLatencyNanos));
+    }
+    inFlight++;
+    return new Permit(now, probe);
+  }
+
+  private synchronized void release(Permit permit, boolean failed) {
+    if (!enabled) {
+      return;
+    }
+    var now = System.nanoTime();
+    inFlight--;
+    if (failed || now - permit.startedAtNanos > targetLatencyNanos) {
+      limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    } else {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+    if (permit.probe) {
+      probeInFlight = false;
+    }
+    if (failed) {
+      consecutiveFailures++;
+      if (permit.probe || consecutiveFailures >= failureThreshold) {
+        state = CircuitState.OPEN;
+        openedAtNanos = now;
+      }
+    } else {
+      consecutiveFailures = 0;
+      if (permit.probe) {
+        state = CircuitState.CLOSED;
+      }
+    }
+  }
+
+  private static ApplicationFailure overloaded(String message, Duration nextRetryDelay) {
+    return ApplicationFailure.newFailureWithCauseAndDelay(
+        message, Errors.SERVICE_OVERLOADED.name(), null, nextRetryDelay);
+  }
+
+  public final class Permit {
+    private final long startedAtNanos;
+    private final boolean probe;
+    private boolean released;
+
+    private Permit(long startedAtNanos, boolean probe) {
+      this.startedAtNanos = startedAtNanos;
+      this.probe = probe;
+    }
+
+    public void success() {
+      release(false);
+    }
+
+    public void failure() {
+      release(true);
+    }
+
+    private void release(boolean failed) {
+      synchronized (CrmCallGuard.this) {
+        if (released) {
+          return;
+        }
+        released = true;
+        CrmCallGuard.this.release(this, failed);
+      }
+    }
+  }
+}
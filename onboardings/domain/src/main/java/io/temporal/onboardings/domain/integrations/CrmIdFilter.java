@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.onboardings.domain.clients.crm.CrmClient;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Worker-local Bloom filter over the CRM customer ids, seeded from `listCustomerIds` and
+// updated on every successful lookup or registration by this Worker. Seeding only happens
+// when the filter is enabled, and downloads at most `expected-ids`; a bigger CRM would blow
+// the false-positive rate, so the filter stays off instead.
+// `mightContain` returning false means this Worker has never seen the id. That only proves the
+// id is new when nothing else registers customers, so the filter answers "absent" only when it
+// is declared the `sole-writer` and its seed is younger than `max-seed-age`. Ids registered
+// out of band since seeding are the remaining risk; `max-seed-age` bounds how long they can be
+// missed, after which every check goes back to the CRM.
+// The filter is rebuilt from the CRM every `reseed-interval` (which should be shorter than
+// `max-seed-age`). Each rebuild fills a new bitset off to the side and swaps it in whole, so
+// checks never see a half-seeded filter; ids this Worker adds meanwhile go into both. A rebuild
+// that fails keeps the old seed, which then expires as usual.
+// Until seeded, or when disabled, it answers "maybe" so every lookup still happens.
+@Component
+public class CrmIdFilter implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(CrmIdFilter.class);
+
+  private final CrmClient crmClient;
+  private final boolean enabled;
+  private final long maxSeedAgeNanos;
+  private final int seedLimit;
+  private final long bitCount;
+  private final int hashCount;
+  private final Counter absent;
+  private final Counter maybe;
+  private final Counter falsePositives;
+  private final ScheduledExecutorService reseeder =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            var thread = new Thread(r, "crm-id-filter-reseed");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private volatile Seed seed;
+  // the bitset a reseed is filling, so ids added meanwhile land in it too
+  private volatile AtomicLongArray reseeding;
+
+  public CrmIdFilter(
+      CrmClient crmClient,
+      MeterRegistry meterRegistry,
+      @Value("${spring.curriculum.crm.id-filter.enabled:false}") boolean enabled,
+      @Value("${spring.curriculum.crm.id-filter.sole-writer:false}") boolean soleWriter,
+      @Value("${spring.curriculum.crm.id-filter.max-seed-age:10m}") Duration maxSeedAge,
+      @Value("${spring.curriculum.crm.id-filter.reseed-interval:5m}") Duration reseedInterval,
+      @Value("${spring.curriculum.crm.id-filter.expected-ids:1000000}") long expectedIds,
+      @Value("${spring.curriculum.crm.id-filter.false-positive-probability:0.01}") double fpp) {
+    // standard Bloom filter sizing: m = -n ln(p) / ln(2)^2 bits, k = m/n ln(2) hashes
+    var m = (long) Math.ceil(-expectedIds * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    this.bitCount = Math.max(Long.SIZE, m);
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedIds * Math.log(2)));
+    this.crmClient = crmClient;
+    this.seedLimit = (int) Math.min(expectedIds, Integer.MAX_VALUE - 1);
+    this.absent =
+        Counter.builder("crm.id_filter.checks")
+            .tag("result", "absent")
+            .description("Existence checks answered by the filter without a CRM lookup")
+            .register(meterRegistry);
+    this.maybe =
+        Counter.builder("crm.id_filter.checks")
+            .tag("result", "maybe")
+            .description("Existence checks that still needed a CRM lookup")
+            .register(meterRegistry);
+    this.falsePositives =
+        Counter.builder("crm.id_filter.false_positives")
+            .description("Lookups the filter allowed that found no customer")
+            .register(meterRegistry);
+    this.maxSeedAgeNanos = maxSeedAge.toNanos();
+    if (enabled && !soleWriter) {
+      logger.warn("CRM id filter needs sole-writer: other writers' ids would read as absent");
+    }
+    this.enabled = enabled && soleWriter && reseed();
+    if (this.enabled) {
+      reseeder.scheduleWithFixedDelay(
+          this::reseed,
+          reseedInterval.toMillis(),
+          reseedInterval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  // false (keeping the current seed) if the CRM could not be listed or holds too many ids
+  synchronized boolean reseed() {
+    // the seed is only as fresh as the listing, so its age counts from before the call
+    var startedAtNanos = System.nanoTime();
+    var bits = new AtomicLongArray((int) ((bitCount + Long.SIZE - 1) / Long.SIZE));
+    reseeding = bits;
+    try {
+      var ids = crmClient.listCustomerIds(seedLimit + 1);
+      if (ids.size() > seedLimit) {
+        logger.warn(
+            "CRM holds more than {} ids; raise expected-ids to use the CRM id filter", seedLimit);
+        return false;
+      }
+      ids.forEach(id -> put(bits, id));
+      seed = new Seed(bits, startedAtNanos);
+      logger.info(
+          "Seeded CRM id filter with {} ids ({} bits, {} hashes)", ids.size(), bitCount, hashCount);
+      return true;
+    } catch (ConnectException | RuntimeException e) {
+      logger.warn("Failed to seed CRM id filter; every existence check will hit the CRM", e);
+      return false;
+    } finally {
+      reseeding = null;
+    }
+  }
+
+  public boolean mightContain(String id) {
+    var seed = this.seed;
+    if (!enabled || System.nanoTime() - seed.seededAtNanos() >= maxSeedAgeNanos) {
+      return true;
+    }
+    var bits = seed.bits();
+    var h = hash(id);
+    var h2 = mix(h ^ 0x9E3779B97F4A7C15L);
+    for (var i = 0; i < hashCount; i++) {
+      var bit = Math.floorMod(h + i * h2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        absent.increment();
+        return false;
+      }
+    }
+    maybe.increment();
+    return true;
+  }
+
+  public void add(String id) {
+    if (enabled) {
+      // read `reseeding` first: once it has been cleared, `seed` already holds the new bitset
+      var pending = reseeding;
+      put(seed.bits(), id);
+      if (pending != null) {
+        put(pending, id);
+      }
+    }
+  }
+
+  // the filter said "maybe" but the CRM had no such customer
+  public void recordFalsePositive() {
+    if (enabled) {
+      falsePositives.increment();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    reseeder.shutdownNow();
+  }
+
+  private void put(AtomicLongArray bits, String id) {
+    var h = hash(id);
+    var h2 = mix(h ^ 0x9E3779B97F4A7C15L);
+    for (var i = 0; i < hashCount; i++) {
+      var bit = Math.floorMod(h + i * h2, bitCount);
+      var mask = 1L << bit;
+      bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+    }
+  }
+
+  // FNV-1a over the UTF-16 chars, then a murmur3 finalizer to spread the bits
+  private static long hash(String id) {
+    var h = 0xCBF29CE484222325L;
+    for (var i = 0; i < id.length(); i++) {
+      h = (h ^ id.charAt(i)) * 0x100000001B3L;
+    }
+    return mix(h);
+  }
+
+  private static long mix(long h) {
+    h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+    h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  private record Seed(AtomicLongArray bits, long seededAtNanos) {}
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.temporal.onboardings.domain.clients.crm.CrmClient;
+import io.temporal.onboardings.domain.clients.crm.CrmCustomer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Collects CRM registrations from concurrent Activity executions and sends them as one
+// `CrmClient.registerCustomers` call.
+// A batch is flushed `window` after its first registration arrives, or as soon as it holds
+// `max-size` registrations, whichever comes first. Each caller gets a future that completes
+// with the outcome of its own registration.
+// Up to `max-in-flight` batches are sent concurrently, so one slow CRM call does not hold up
+// the batches behind it. Once that many are in flight, new registrations wait in the queue and
+// go out together in the next batch.
+@Component
+public class CrmRegistrationBatcher implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(CrmRegistrationBatcher.class);
+
+  private final CrmClient crmClient;
+  private final boolean enabled;
+  private final Duration window;
+  private final int maxSize;
+  private final LinkedBlockingQueue<Registration> queue = new LinkedBlockingQueue<>();
+  private final Semaphore inFlight;
+  private final ExecutorService flushes;
+  private final Thread collector;
+
+  public CrmRegistrationBatcher(
+      CrmClient crmClient,
+      @Value("${spring.curriculum.crm.batch.enabled:false}") boolean enabled,
+      @Value("${spring.curriculum.crm.batch.window:10ms}") Duration window,
+      @Value("${spring.curriculum.crm.batch.max-size:100}") int maxSize,
+      @Value("${spring.curriculum.crm.batch.max-in-flight:4}") int maxInFlight) {
+    this.crmClient = crmClient;
+    this.enabled = enabled;
+    this.window = window;
+    this.maxSize = maxSize;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.flushes =
+        Executors.newFixedThreadPool(
+            maxInFlight,
+            r -> {
+              var thread = new Thread(r, "crm-registration-flush");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.collector = new Thread(this::run, "crm-registration-batcher");
+    if (enabled) {
+      collector.setDaemon(true);
+      collector.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public CompletableFuture<Void> register(String id, String value) {
+    var registration = new Registration(new CrmCustomer(id, value), new CompletableFuture<>());
+    queue.add(registration);
+    return registration.result();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    collector.interrupt();
+    collector.join(window.toMillis() + 1000);
+    // batches already sent complete on their own
+    flushes.shutdown();
+    List<Registration> abandoned = new ArrayList<>();
+    queue.drainTo(abandoned);
+    abandon(abandoned);
+  }
+
+  private void run() {
+    var batch = new ArrayList<Registration>(maxSize);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        inFlight.acquire();
+        batch.add(queue.take());
+        var deadline = System.nanoTime() + window.toNanos();
+        while (batch.size() < maxSize) {
+          queue.drainTo(batch, maxSize - batch.size());
+          var remaining = deadline - System.nanoTime();
+          if (batch.size() >= maxSize || remaining <= 0) {
+            break;
+          }
+          var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next != null) {
+            batch.add(next);
+          }
+        }
+        var sending = batch;
+        batch = new ArrayList<>(maxSize);
+        try {
+          flushes.execute(
+              () -> {
+                try {
+                  flush(sending);
+                } finally {
+                  inFlight.release();
+                }
+              });
+        } catch (RejectedExecutionException e) {
+          abandon(sending);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    abandon(batch);
+  }
+
+  private static void abandon(List<Registration> registrations) {
+    registrations.forEach(
+        r -> r.result().completeExceptionally(new IllegalStateException("Shutting down")));
+  }
+
+  private void flush(List<Registration> batch) {
+    try {
+      var rejected =
+          crmClient.registerCustomers(batch.stream().map(Registration::customer).toList());
+      for (var registration : batch) {
+        var e = rejected.get(registration.customer().id());
+        if (e == null) {
+          registration.result().complete(null);
+        } else {
+          registration.result().completeExceptionally(e);
+        }
+      }
+    } catch (Exception e) {
+      logger.warn("Failed to register a batch of {} CRM customers", batch.size(), e);
+      batch.forEach(r -> r.result().completeExceptionally(e));
+    }
+  }
+
+  private record Registration(CrmCustomer customer, CompletableFuture<Void> result) {}
+}
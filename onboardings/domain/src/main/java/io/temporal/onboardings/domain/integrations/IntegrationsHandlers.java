@@ -26,8 +26,17 @@ package io.temporal.onboardings.domain.integrations;
 
 import io.temporal.activity.ActivityInterface;
 import io.temporal.onboardings.domain.messages.commands.RegisterCrmEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.CrmEntityExistsRequest;
 
 @ActivityInterface
 public interface IntegrationsHandlers {
+  // checks for and registers the entity in one Activity;
+  // kept for executions that started before the check moved to a Local Activity
   void registerCrmEntity(RegisterCrmEntityRequest cmd);
+
+  // read-only, so it is cheap and safe to run as a Local Activity
+  boolean crmEntityExists(CrmEntityExistsRequest cmd);
+
+  // callers are expected to have checked `crmEntityExists` first
+  void createCrmEntity(RegisterCrmEntityRequest cmd);
 }
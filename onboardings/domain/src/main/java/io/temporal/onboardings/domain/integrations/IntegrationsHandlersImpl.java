@@ -24,11 +24,16 @@
 
 package io.temporal.onboardings.domain.integrations;
 
+import io.temporal.activity.Activity;
 import io.temporal.failure.ApplicationFailure;
 import io.temporal.onboardings.domain.clients.crm.CrmClient;
 import io.temporal.onboardings.domain.messages.commands.RegisterCrmEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import io.temporal.onboardings.domain.messages.queries.CrmEntityExistsRequest;
 import java.net.ConnectException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
@@ -36,29 +41,157 @@ import org.springframework.web.client.HttpClientErrorException;
 @Component("integrations-handlers")
 public class IntegrationsHandlersImpl implements IntegrationsHandlers {
   private final CrmClient crmClient;
+  private final CrmRegistrationBatcher crmRegistrationBatcher;
+  private final AsyncActivityCompleter asyncActivityCompleter;
+  private final CrmCallGuard crmCallGuard;
+  private final CrmIdFilter crmIdFilter;
+  private final boolean completeAsync;
 
-  public IntegrationsHandlersImpl(CrmClient crmClient) {
+  public IntegrationsHandlersImpl(
+      CrmClient crmClient,
+      CrmRegistrationBatcher crmRegistrationBatcher,
+      AsyncActivityCompleter asyncActivityCompleter,
+      CrmCallGuard crmCallGuard,
+      CrmIdFilter crmIdFilter,
+      @Value("${spring.curriculum.crm.async.enabled:false}") boolean completeAsync) {
     this.crmClient = crmClient;
+    this.crmRegistrationBatcher = crmRegistrationBatcher;
+    this.asyncActivityCompleter = asyncActivityCompleter;
+    this.crmCallGuard = crmCallGuard;
+    this.crmIdFilter = crmIdFilter;
+    this.completeAsync = completeAsync;
   }
 
   @Override
   public void registerCrmEntity(RegisterCrmEntityRequest cmd) {
+    // Idempotency check - does the Entity already exist?
+    // If so, just return
+    if (crmEntityExists(new CrmEntityExistsRequest(cmd.id()))) {
+      return;
+    }
+    registerCustomer(cmd);
+  }
+
+  @Override
+  public boolean crmEntityExists(CrmEntityExistsRequest cmd) {
+    // nearly every id is new during bulk onboarding, so most lookups end here when the filter
+    // is allowed to vouch for absence (see `CrmIdFilter`)
+    if (!crmIdFilter.mightContain(cmd.id())) {
+      return false;
+    }
+    var permit = crmCallGuard.acquire();
     try {
-      // Idempotency check - does the Entity already exist?
-      // If so, just return
       var ignored = crmClient.getCustomerById(cmd.id());
-      return;
+      permit.success();
+      crmIdFilter.add(cmd.id());
+      return true;
     } catch (HttpClientErrorException e) {
+      permit.success();
       // a 404 means it doesnt exist, so ignore it
       if (!e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
         throw e;
       }
+      crmIdFilter.recordFalsePositive();
+      return false;
+    } catch (RuntimeException e) {
+      permit.failure();
+      throw e;
+    } catch (ConnectException e) {
+      permit.failure();
+      throw ApplicationFailure.newNonRetryableFailureWithCause(
+          "Failed to connect with CRM service.", Errors.SERVICE_UNRECOVERABLE.name(), e);
+    }
+  }
+
+  @Override
+  public void createCrmEntity(RegisterCrmEntityRequest cmd) {
+    // A retry may follow an attempt that registered the Entity but timed out before reporting
+    // back, so only retries need to repeat the idempotency check.
+    if (Activity.getExecutionContext().getInfo().getAttempt() > 1
+        && crmEntityExists(new CrmEntityExistsRequest(cmd.id()))) {
+      return;
     }
+    registerCustomer(cmd);
+  }
+
+  private void registerCustomer(RegisterCrmEntityRequest cmd) {
+    if (completeAsync) {
+      registerCustomerAsync(cmd);
+      return;
+    }
+    var permit = crmCallGuard.acquire();
     try {
-      crmClient.registerCustomer(cmd.id(), cmd.value());
+      if (crmRegistrationBatcher.isEnabled()) {
+        awaitBatchedRegistration(cmd);
+      } else {
+        crmClient.registerCustomer(cmd.id(), cmd.value());
+      }
+      permit.success();
+      crmIdFilter.add(cmd.id());
+    } catch (HttpClientErrorException e) {
+      permit.success();
+      throw e;
+    } catch (RuntimeException e) {
+      permit.failure();
+      throw e;
     } catch (ConnectException e) {
+      permit.failure();
       throw ApplicationFailure.newNonRetryableFailureWithCause(
           "Failed to connect with CRM service.", Errors.SERVICE_UNRECOVERABLE.name(), e);
     }
   }
+
+  // Returns without completing the Activity, releasing its slot while the CRM call is in flight.
+  // The Activity is completed (or failed) by `asyncActivityCompleter` when the call finishes.
+  private void registerCustomerAsync(RegisterCrmEntityRequest cmd) {
+    var ctx = Activity.getExecutionContext();
+    var permit = crmCallGuard.acquire();
+    var registration =
+        crmRegistrationBatcher.isEnabled()
+            ? crmRegistrationBatcher.register(cmd.id(), cmd.value())
+            : crmClient.registerCustomerAsync(cmd.id(), cmd.value());
+    registration.whenComplete(
+        (ignored, failure) -> {
+          if (failure == null) {
+            permit.success();
+            crmIdFilter.add(cmd.id());
+          } else if (unwrap(failure) instanceof HttpClientErrorException) {
+            permit.success();
+          } else {
+            permit.failure();
+          }
+        });
+    ctx.doNotCompleteOnReturn();
+    asyncActivityCompleter.completeWhenDone(
+        ctx.getTaskToken(),
+        registration,
+        cause -> {
+          if (cause instanceof ConnectException) {
+            return ApplicationFailure.newNonRetryableFailureWithCause(
+                "Failed to connect with CRM service.", Errors.SERVICE_UNRECOVERABLE.name(), cause);
+          }
+          return cause instanceof Exception e ? e : new RuntimeException(cause);
+        });
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException ? failure.getCause() : failure;
+  }
+
+  private void awaitBatchedRegistration(RegisterCrmEntityRequest cmd) throws ConnectException {
+    try {
+      crmRegistrationBatcher.register(cmd.id(), cmd.value()).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Activity.wrap(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ConnectException ce) {
+        throw ce;
+      }
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw Activity.wrap(e.getCause());
+    }
+  }
 }
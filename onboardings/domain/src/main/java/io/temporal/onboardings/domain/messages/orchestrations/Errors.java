@@ -28,4 +28,6 @@ public enum Errors {
   INVALID_ARGS,
   ONBOARD_ENTITY_TIMED_OUT,
   SERVICE_UNRECOVERABLE,
+  APPROVAL_NOT_PENDING,
+  SERVICE_OVERLOADED,
 }
@@ -0,0 +1,42 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.messages.orchestrations;
+
+import io.temporal.onboardings.domain.messages.values.OnboardBatchProgress;
+
+// `source` is an NDJSON file of `{"id": "...", "value": "..."}` lines readable by the Workers.
+// `skipApproval` is passed to every child. Without it each child waits for approval (up to
+// `completionTimeoutSeconds`) and holds its `maxConcurrency` window slot while it waits, so the
+// batch only moves on as entities are approved, rejected or time out.
+// `cursor` and `progress` are only set when the batch continues as new.
+public record OnboardBatchRequest(
+    String id,
+    String source,
+    int maxConcurrency,
+    int pageSize,
+    int completionTimeoutSeconds,
+    boolean skipApproval,
+    long cursor,
+    OnboardBatchProgress progress) {}
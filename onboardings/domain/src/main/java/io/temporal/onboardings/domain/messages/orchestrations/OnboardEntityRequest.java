@@ -24,9 +24,90 @@
 
 package io.temporal.onboardings.domain.messages.orchestrations;
 
+import io.temporal.onboardings.domain.messages.values.Approval;
+
+// `approval` and `approvalTimeoutSeconds` are only set when an onboarding continues as new,
+// so the next run resumes with the same approval and the time that was left to wait for it.
+// `settings` may be null, in which case `OnboardEntitySettings.DEFAULTS` apply.
+// `hasDeputyOwner` is also set on continue-as-new: the run that hands approval to the deputy
+// drops `deputyOwnerEmail`, but the onboarding still has a deputy owner. When null it is derived
+// from `deputyOwnerEmail`.
 public record OnboardEntityRequest(
     String id,
     String value,
     int completionTimeoutSeconds,
     String deputyOwnerEmail,
-    boolean skipApproval) {}
+    boolean skipApproval,
+    Approval approval,
+    Integer approvalTimeoutSeconds,
+    OnboardEntitySettings settings,
+    Boolean hasDeputyOwner) {
+  public OnboardEntityRequest(
+      String id,
+      String value,
+      int completionTimeoutSeconds,
+      String deputyOwnerEmail,
+      boolean skipApproval,
+      Approval approval,
+      Integer approvalTimeoutSeconds,
+      OnboardEntitySettings settings) {
+    this(
+        id,
+        value,
+        completionTimeoutSeconds,
+        deputyOwnerEmail,
+        skipApproval,
+        approval,
+        approvalTimeoutSeconds,
+        settings,
+        null);
+  }
+
+  public OnboardEntityRequest(
+      String id,
+      String value,
+      int completionTimeoutSeconds,
+      String deputyOwnerEmail,
+      boolean skipApproval,
+      Approval approval,
+      Integer approvalTimeoutSeconds) {
+    this(
+        id,
+        value,
+        completionTimeoutSeconds,
+        deputyOwnerEmail,
+        skipApproval,
+        approval,
+        approvalTimeoutSeconds,
+        null,
+        null);
+  }
+
+  public OnboardEntityRequest(
+      String id,
+      String value,
+      int completionTimeoutSeconds,
+      String deputyOwnerEmail,
+      boolean skipApproval) {
+    this(
+        id,
+        value,
+        completionTimeoutSeconds,
+        deputyOwnerEmail,
+        skipApproval,
+        null,
+        null,
+        null,
+        null);
+  }
+
+  public boolean hasDeputyOwnerOrDerived() {
+    return hasDeputyOwner != null
+        ? hasDeputyOwner
+        : deputyOwnerEmail != null && !deputyOwnerEmail.isEmpty();
+  }
+
+  public OnboardEntitySettings settingsOrDefaults() {
+    return settings == null ? OnboardEntitySettings.DEFAULTS : settings;
+  }
+}
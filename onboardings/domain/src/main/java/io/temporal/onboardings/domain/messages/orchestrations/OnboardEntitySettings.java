@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.messages.orchestrations;
+
+// Tunables for a single onboarding. Requests without settings use `DEFAULTS`; the settings
+// travel with every continue-as-new so each run of an onboarding behaves the same.
+// `maxHistoryLength`/`maxHistorySizeBytes` bound the history of an onboarding waiting for
+// approval before it continues as new. They sit well under the server limits (50K events / 50MB)
+// so replay after a cache eviction stays quick.
+public record OnboardEntitySettings(
+    int deputyOwnerDigestWindowSeconds, int maxHistoryLength, long maxHistorySizeBytes) {
+  // deputy owners get at most one approval digest per window
+  public static final OnboardEntitySettings DEFAULTS =
+      new OnboardEntitySettings(15 * 60, 2_000, 2 * 1024 * 1024);
+
+  public OnboardEntitySettings withDeputyOwnerDigestWindowSeconds(int seconds) {
+    return new OnboardEntitySettings(seconds, maxHistoryLength, maxHistorySizeBytes);
+  }
+
+  public OnboardEntitySettings withMaxHistory(int length, long sizeBytes) {
+    return new OnboardEntitySettings(deputyOwnerDigestWindowSeconds, length, sizeBytes);
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.notifications;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.clients.email.EmailClient;
+import io.temporal.onboardings.domain.clients.email.EmailMessage;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bounded queue in front of `EmailClient`: a sender thread submits queued messages in batches
+// through `EmailClient.sendEmails`, flushing `window` after a batch's first message or once it
+// holds `max-batch-size` messages. Each message's future completes with its own delivery result.
+// When the queue is full, `send` blocks the calling Activity for up to `enqueue-timeout` and
+// then fails with a retryable SERVICE_OVERLOADED failure, so a backed-up mail transport slows
+// down Notification Activities rather than growing the queue without bound.
+@Component
+public class EmailOutbox implements DisposableBean {
+  Logger logger = LoggerFactory.getLogger(EmailOutbox.class);
+
+  private final EmailClient emailClient;
+  private final boolean enabled;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Duration enqueueTimeout;
+  private final ArrayBlockingQueue<Pending> queue;
+  private final Timer delivered;
+  private final Timer undelivered;
+  private final Thread sender;
+
+  public EmailOutbox(
+      EmailClient emailClient,
+      MeterRegistry meterRegistry,
+      @Value("${spring.curriculum.notifications.outbox.enabled:false}") boolean enabled,
+      @Value("${spring.curriculum.notifications.outbox.capacity:1000}") int capacity,
+      @Value("${spring.curriculum.notifications.outbox.window:20ms}") Duration window,
+      @Value("${spring.curriculum.notifications.outbox.max-batch-size:50}") int maxBatchSize,
+      @Value("${spring.curriculum.notifications.outbox.enqueue-timeout:500ms}")
+          Duration enqueueTimeout) {
+    this.emailClient = emailClient;
+    this.enabled = enabled;
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.enqueueTimeout = enqueueTimeout;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    Gauge.builder("email.outbox.depth", queue, ArrayBlockingQueue::size)
+        .description("Emails waiting to be submitted")
+        .register(meterRegistry);
+    this.delivered =
+        Timer.builder("email.outbox.latency")
+            .tag("result", "delivered")
+            .description("Time from enqueueing an email to its delivery result")
+            .register(meterRegistry);
+    this.undelivered =
+        Timer.builder("email.outbox.latency")
+            .tag("result", "undelivered")
+            .description("Time from enqueueing an email to its delivery result")
+            .register(meterRegistry);
+    this.sender = new Thread(this::run, "email-outbox");
+    if (enabled) {
+      sender.setDaemon(true);
+      sender.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public CompletableFuture<Void> send(String email, String body) {
+    var pending =
+        new Pending(
+            new EmailMessage(UUID.randomUUID().toString(), email, body),
+            System.nanoTime(),
+            new CompletableFuture<>());
+    try {
+      if (!queue.offer(pending, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw ApplicationFailure.newFailureWithCauseAndDelay(
+            "Email outbox is full.", Errors.SERVICE_OVERLOADED.name(), null, window.plus(window));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while queueing email", e);
+    }
+    return pending.result();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    sender.interrupt();
+    sender.join(window.toMillis() + 1000);
+    List<Pending> abandoned = new ArrayList<>();
+    queue.drainTo(abandoned);
+    abandoned.forEach(
+        p -> p.result().completeExceptionally(new IllegalStateException("Shutting down")));
+  }
+
+  private void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        var batch = new ArrayList<Pending>(maxBatchSize);
+        batch.add(queue.take());
+        var deadline = System.nanoTime() + window.toNanos();
+        while (batch.size() < maxBatchSize) {
+          queue.drainTo(batch, maxBatchSize - batch.size());
+          var remaining = deadline - System.nanoTime();
+          if (batch.size() >= maxBatchSize || remaining <= 0) {
+            break;
+          }
+          var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next != null) {
+            batch.add(next);
+          }
+        }
+        submit(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void submit(List<Pending> batch) {
+    try {
+      var undeliveredById = emailClient.sendEmails(batch.stream().map(Pending::message).toList());
+      for (var pending : batch) {
+        var e = undeliveredById.get(pending.message().id());
+        if (e == null) {
+          recordLatency(pending, delivered);
+          pending.result().complete(null);
+        } else {
+          recordLatency(pending, undelivered);
+          pending.result().completeExceptionally(e);
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Failed to submit a batch of {} emails", batch.size(), e);
+      batch.forEach(
+          pending -> {
+            recordLatency(pending, undelivered);
+            pending.result().completeExceptionally(e);
+          });
+    }
+  }
+
+  private static void recordLatency(Pending pending, Timer timer) {
+    timer.record(System.nanoTime() - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  private record Pending(
+      EmailMessage message, long enqueuedAtNanos, CompletableFuture<Void> result) {}
+}
@@ -26,8 +26,11 @@ package io.temporal.onboardings.domain.notifications;
 
 import io.temporal.activity.ActivityInterface;
 import io.temporal.onboardings.domain.messages.commands.RequestDeputyOwnerApprovalRequest;
+import io.temporal.onboardings.domain.messages.commands.SendDeputyOwnerDigestRequest;
 
 @ActivityInterface
 public interface NotificationsHandlers {
   void requestDeputyOwnerApproval(RequestDeputyOwnerApprovalRequest cmd);
+
+  void sendDeputyOwnerDigest(SendDeputyOwnerDigestRequest cmd);
 }
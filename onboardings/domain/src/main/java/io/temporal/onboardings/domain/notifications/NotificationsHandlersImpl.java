@@ -24,22 +24,62 @@
 
 package io.temporal.onboardings.domain.notifications;
 
+import io.temporal.activity.Activity;
 import io.temporal.onboardings.domain.clients.email.EmailClient;
+import io.temporal.onboardings.domain.integrations.AsyncActivityCompleter;
 import io.temporal.onboardings.domain.messages.commands.RequestDeputyOwnerApprovalRequest;
+import io.temporal.onboardings.domain.messages.commands.SendDeputyOwnerDigestRequest;
 import org.springframework.stereotype.Component;
 
 @Component("notifications-handlers")
 public class NotificationsHandlersImpl implements NotificationsHandlers {
   private final EmailClient emailClient;
+  private final EmailOutbox emailOutbox;
+  private final AsyncActivityCompleter asyncActivityCompleter;
 
-  public NotificationsHandlersImpl(EmailClient emailClient) {
+  public NotificationsHandlersImpl(
+      EmailClient emailClient,
+      EmailOutbox emailOutbox,
+      AsyncActivityCompleter asyncActivityCompleter) {
     this.emailClient = emailClient;
+    this.emailOutbox = emailOutbox;
+    this.asyncActivityCompleter = asyncActivityCompleter;
   }
 
   @Override
   public void requestDeputyOwnerApproval(RequestDeputyOwnerApprovalRequest cmd) {
-    emailClient.sendEmail(
+    sendEmail(
         cmd.deputyOwnerEmail(),
         "An approval has been requested at http://localhost:3030/api/onboardings/" + cmd.id());
   }
+
+  @Override
+  public void sendDeputyOwnerDigest(SendDeputyOwnerDigestRequest cmd) {
+    var body = new StringBuilder();
+    body.append(
+        String.format("Approvals have been requested for %d onboardings:%n", cmd.ids().size()));
+    cmd.ids()
+        .forEach(
+            id ->
+                body.append("http://localhost:3030/api/onboardings/")
+                    .append(id)
+                    .append(System.lineSeparator()));
+    sendEmail(cmd.deputyOwnerEmail(), body.toString());
+  }
+
+  // With the outbox enabled the Activity slot is released once the email is queued, and the
+  // Activity completes with that email's delivery result.
+  private void sendEmail(String email, String body) {
+    if (!emailOutbox.isEnabled()) {
+      emailClient.sendEmail(email, body);
+      return;
+    }
+    var ctx = Activity.getExecutionContext();
+    var delivery = emailOutbox.send(email, body);
+    ctx.doNotCompleteOnReturn();
+    asyncActivityCompleter.completeWhenDone(
+        ctx.getTaskToken(),
+        delivery,
+        cause -> cause instanceof Exception e ? e : new RuntimeException(cause));
+  }
 }
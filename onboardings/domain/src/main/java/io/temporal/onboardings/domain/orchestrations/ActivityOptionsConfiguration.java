@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.metadata.POJOActivityInterfaceMetadata;
+import io.temporal.onboardings.domain.integrations.IntegrationsHandlers;
+import io.temporal.onboardings.domain.notifications.NotificationsHandlers;
+import io.temporal.spring.boot.WorkflowImplementationOptionsCustomizer;
+import io.temporal.worker.WorkflowImplementationOptions;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Per Activity type overrides of the options the Workflows schedule Activities with.
+// Every process hosting these Workflows imports `DomainConfig`, so the dedicated Workers and a
+// co-located Worker schedule Activities the same way.
+// Each Activity interface is routed to its own Task Queue (when configured), so a slow CRM
+// cannot starve notifications of slots or pollers. CRM registrations completed
+// asynchronously also outlive the 2s timeout the Workflows use, so they get a longer one and
+// heartbeat (see `AsyncActivityCompleter`).
+@Configuration
+public class ActivityOptionsConfiguration {
+  Logger logger = LoggerFactory.getLogger(ActivityOptionsConfiguration.class);
+
+  @Bean
+  public WorkflowImplementationOptionsCustomizer workflowImplementationCustomizer(
+      @Value("${spring.curriculum.task-queues.integrations:}") String integrationsTaskQueue,
+      @Value("${spring.curriculum.task-queues.notifications:}") String notificationsTaskQueue,
+      @Value("${spring.curriculum.crm.async.enabled:false}") boolean crmAsync,
+      @Value("${spring.curriculum.crm.async.start-to-close-timeout:60s}") Duration startToClose,
+      @Value("${spring.curriculum.crm.async.heartbeat-timeout:10s}") Duration heartbeat) {
+    var activityOptions = new HashMap<String, ActivityOptions>();
+    if (!integrationsTaskQueue.isEmpty()) {
+      route(activityOptions, IntegrationsHandlers.class, integrationsTaskQueue);
+    }
+    if (!notificationsTaskQueue.isEmpty()) {
+      route(activityOptions, NotificationsHandlers.class, notificationsTaskQueue);
+    }
+    if (crmAsync) {
+      logger.info("Extending CRM registration timeouts to {} for async completion", startToClose);
+      var crmOptions =
+          ActivityOptions.newBuilder()
+              .setStartToCloseTimeout(startToClose)
+              .setHeartbeatTimeout(heartbeat)
+              .build();
+      List.of("CreateCrmEntity", "RegisterCrmEntity")
+          .forEach(type -> merge(activityOptions, type, crmOptions));
+    }
+    return new WorkflowImplementationOptionsCustomizer() {
+      @Nonnull
+      @Override
+      public WorkflowImplementationOptions.Builder customize(
+          @Nonnull WorkflowImplementationOptions.Builder optionsBuilder) {
+        return activityOptions.isEmpty()
+            ? optionsBuilder
+            : optionsBuilder.setActivityOptions(activityOptions);
+      }
+    };
+  }
+
+  private void route(
+      Map<String, ActivityOptions> activityOptions, Class<?> activityInterface, String taskQueue) {
+    logger.info(
+        "Routing {} Activities to Task Queue {}", activityInterface.getSimpleName(), taskQueue);
+    var options = ActivityOptions.newBuilder().setTaskQueue(taskQueue).build();
+    POJOActivityInterfaceMetadata.newInstance(activityInterface)
+        .getMethodsMetadata()
+        .forEach(method -> merge(activityOptions, method.getActivityTypeName(), options));
+  }
+
+  private static void merge(
+      Map<String, ActivityOptions> activityOptions, String activityType, ActivityOptions options) {
+    activityOptions.merge(
+        activityType, options, (a, b) -> a.toBuilder().mergeActivityOptions(b).build());
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.failure.ActivityFailure;
+import io.temporal.onboardings.domain.messages.commands.RequestDeputyOwnerApprovalRequest;
+import io.temporal.onboardings.domain.messages.commands.SendDeputyOwnerDigestRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.DeputyOwnerDigestRequest;
+import io.temporal.onboardings.domain.notifications.NotificationsHandlers;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInit;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.slf4j.Logger;
+
+// One execution per deputy owner collects the approval requests `EntityOnboarding`s signal
+// to it and sends them as a single email every `windowSeconds`, instead of one email (and one
+// Activity) per entity. The digest completes once a whole window passes without a request
+// and nothing is left to send; the next request starts a new one. A digest that fails to send
+// is retried with the next window rather than dropped.
+public class DeputyOwnerDigestImpl implements DeputyOwnerDigest {
+  static final int MAX_HISTORY_LENGTH = 10_000;
+
+  Logger logger = Workflow.getLogger(DeputyOwnerDigestImpl.class);
+  private final NotificationsHandlers notificationHandlers =
+      Workflow.newActivityStub(
+          NotificationsHandlers.class,
+          ActivityOptions.newBuilder()
+              // same SPAM guard as the per-entity request
+              .setRetryOptions(RetryOptions.newBuilder().setMaximumAttempts(2).build())
+              .setStartToCloseTimeout(Duration.ofSeconds(10))
+              .build());
+  private final Set<String> pendingIds = new LinkedHashSet<>();
+
+  @WorkflowInit
+  public DeputyOwnerDigestImpl(DeputyOwnerDigestRequest args) {
+    if (args.pendingIds() != null) {
+      pendingIds.addAll(args.pendingIds());
+    }
+  }
+
+  @Override
+  public void execute(DeputyOwnerDigestRequest args) {
+    var window = Duration.ofSeconds(args.windowSeconds());
+    while (true) {
+      var requested = Workflow.await(window, () -> !pendingIds.isEmpty());
+      // a request signalled in the same task the timer fired in lands after the await
+      // returns, so look at `pendingIds` again rather than trusting `requested`
+      Workflow.await(Workflow::isEveryHandlerFinished);
+      if (!requested && pendingIds.isEmpty()) {
+        return;
+      }
+      // let the rest of this window's requests arrive
+      Workflow.sleep(window);
+      var ids = new ArrayList<>(pendingIds);
+      pendingIds.clear();
+      try {
+        notificationHandlers.sendDeputyOwnerDigest(
+            new SendDeputyOwnerDigestRequest(args.deputyOwnerEmail(), ids));
+      } catch (ActivityFailure e) {
+        // put the requests back in front of any that arrived meanwhile; the next window
+        // retries them
+        logger.warn("Digest of {} approval requests failed, retrying next window", ids.size(), e);
+        var requeued = new LinkedHashSet<>(ids);
+        requeued.addAll(pendingIds);
+        pendingIds.clear();
+        pendingIds.addAll(requeued);
+      }
+      var info = Workflow.getInfo();
+      if (info.isContinueAsNewSuggested() || info.getHistoryLength() > MAX_HISTORY_LENGTH) {
+        Workflow.await(Workflow::isEveryHandlerFinished);
+        Workflow.newContinueAsNewStub(DeputyOwnerDigest.class)
+            .execute(
+                new DeputyOwnerDigestRequest(
+                    args.deputyOwnerEmail(), args.windowSeconds(), new ArrayList<>(pendingIds)));
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void requestApproval(RequestDeputyOwnerApprovalRequest cmd) {
+    pendingIds.add(cmd.id());
+  }
+}
@@ -30,6 +30,8 @@ import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityReque
 import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
 import io.temporal.workflow.QueryMethod;
 import io.temporal.workflow.SignalMethod;
+import io.temporal.workflow.UpdateMethod;
+import io.temporal.workflow.UpdateValidatorMethod;
 import io.temporal.workflow.WorkflowInterface;
 import io.temporal.workflow.WorkflowMethod;
 
@@ -46,4 +48,18 @@ public interface EntityOnboarding {
 
   @SignalMethod
   void reject(RejectEntityRequest cmd);
+
+  // Update variants of `approve` / `reject` return the resulting state so callers
+  // do not have to follow up with a `getState` Query.
+  @UpdateMethod
+  EntityOnboardingState approveEntity(ApproveEntityRequest cmd);
+
+  @UpdateValidatorMethod(updateName = "approveEntity")
+  void validateApproveEntity(ApproveEntityRequest cmd);
+
+  @UpdateMethod
+  EntityOnboardingState rejectEntity(RejectEntityRequest cmd);
+
+  @UpdateValidatorMethod(updateName = "rejectEntity")
+  void validateRejectEntity(RejectEntityRequest cmd);
 }
@@ -25,23 +25,33 @@
 package io.temporal.onboardings.domain.orchestrations;
 
 import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.api.enums.v1.ParentClosePolicy;
 import io.temporal.common.RetryOptions;
 import io.temporal.failure.ActivityFailure;
 import io.temporal.failure.ApplicationFailure;
+import io.temporal.failure.ChildWorkflowFailure;
 import io.temporal.onboardings.domain.integrations.IntegrationsHandlers;
 import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RegisterCrmEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RequestDeputyOwnerApprovalRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.DeputyOwnerDigestRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.Errors;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntitySettings;
+import io.temporal.onboardings.domain.messages.queries.CrmEntityExistsRequest;
 import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
 import io.temporal.onboardings.domain.messages.values.Approval;
 import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
 import io.temporal.onboardings.domain.notifications.NotificationsHandlers;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.ChildWorkflowOptions;
+import io.temporal.workflow.SignalExternalWorkflowException;
 import io.temporal.workflow.Workflow;
 import io.temporal.workflow.WorkflowInit;
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -56,10 +66,16 @@ import org.slf4j.Logger;
 public class EntityOnboardingImpl implements EntityOnboarding {
   Logger logger = Workflow.getLogger(EntityOnboardingImpl.class);
   private EntityOnboardingState state;
+  private boolean hasDeputyOwner;
+  private OnboardEntitySettings settings;
   private final IntegrationsHandlers integrationsHandlers =
       Workflow.newActivityStub(
           IntegrationsHandlers.class,
           ActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofSeconds(2)).build());
+  private final IntegrationsHandlers localIntegrationsHandlers =
+      Workflow.newLocalActivityStub(
+          IntegrationsHandlers.class,
+          LocalActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofSeconds(2)).build());
   private final NotificationsHandlers notificationHandlers =
       Workflow.newActivityStub(
           NotificationsHandlers.class,
@@ -87,8 +103,11 @@ public class EntityOnboardingImpl implements EntityOnboarding {
     var status =
         args.skipApproval()
             ? new Approval(ApprovalStatus.APPROVED, null)
-            : new Approval(ApprovalStatus.PENDING, null);
+            : Objects.requireNonNullElse(
+                args.approval(), new Approval(ApprovalStatus.PENDING, null));
     this.state = new EntityOnboardingState(args.id(), args.value(), status);
+    this.hasDeputyOwner = args.hasDeputyOwnerOrDerived();
+    this.settings = args.settingsOrDefaults();
   }
 
   @Override
@@ -98,10 +117,14 @@ public class EntityOnboardingImpl implements EntityOnboarding {
         Objects.nonNull(args.deputyOwnerEmail()) && !args.deputyOwnerEmail().isEmpty();
 
     assertValidArgs(args);
+    upsertSearchAttributes();
 
     if (!args.skipApproval()) {
       var waitApprovalSecs = args.completionTimeoutSeconds();
-      if (notifyDeputyOwner) {
+      if (args.approvalTimeoutSeconds() != null) {
+        // we are resuming a wait that was interrupted by continue-as-new
+        waitApprovalSecs = args.approvalTimeoutSeconds();
+      } else if (notifyDeputyOwner) {
         // We lean into integer division here to be unconcerned about
         // determinism issues. Note that if we did this with a float/double
         // we could run into a problem with hardware results and violate the determinism
@@ -109,11 +132,38 @@ public class EntityOnboardingImpl implements EntityOnboarding {
         waitApprovalSecs = waitApprovalSecs / 2;
       }
 
+      var continueAsNewOnHistory =
+          Workflow.getVersion("CONTINUE_AS_NEW_ON_HISTORY", Workflow.DEFAULT_VERSION, 1)
+              != Workflow.DEFAULT_VERSION;
+      var waitStartedMillis = Workflow.currentTimeMillis();
       // this blocks until we flip the `ApprovalStatus` bit on our state object
       var conditionMet =
           Workflow.await(
               Duration.ofSeconds(waitApprovalSecs),
-              () -> !state.approval().approvalStatus().equals(ApprovalStatus.PENDING));
+              () ->
+                  !state.approval().approvalStatus().equals(ApprovalStatus.PENDING)
+                      || (continueAsNewOnHistory && isHistoryTooLarge()));
+
+      if (conditionMet && state.approval().approvalStatus().equals(ApprovalStatus.PENDING)) {
+        // Noisy signal traffic has grown our history; start over with a fresh one so
+        // replaying this execution stays cheap. Whole seconds keep the arithmetic deterministic.
+        var elapsedSecs = (int) ((Workflow.currentTimeMillis() - waitStartedMillis) / 1000);
+        var can = Workflow.newContinueAsNewStub(EntityOnboarding.class);
+        var canArgs =
+            new OnboardEntityRequest(
+                args.id(),
+                state.currentValue(),
+                args.completionTimeoutSeconds() - elapsedSecs,
+                args.deputyOwnerEmail(),
+                false,
+                state.approval(),
+                Math.max(0, waitApprovalSecs - elapsedSecs),
+                args.settings(),
+                hasDeputyOwner);
+        Workflow.await(Workflow::isEveryHandlerFinished);
+        can.execute(canArgs);
+        return;
+      }
 
       if (!conditionMet) {
         if (!notifyDeputyOwner) {
@@ -121,8 +171,9 @@ public class EntityOnboardingImpl implements EntityOnboarding {
               String.format("Never received approval for %s", args.id()),
               Errors.ONBOARD_ENTITY_TIMED_OUT.name());
         }
-        notificationHandlers.requestDeputyOwnerApproval(
-            new RequestDeputyOwnerApprovalRequest(args.id(), args.deputyOwnerEmail()));
+        requestDeputyOwnerApproval(
+            new RequestDeputyOwnerApprovalRequest(args.id(), args.deputyOwnerEmail()),
+            settings.deputyOwnerDigestWindowSeconds());
         var can = Workflow.newContinueAsNewStub(EntityOnboarding.class);
         var canArgs =
             new OnboardEntityRequest(
@@ -130,7 +181,11 @@ public class EntityOnboardingImpl implements EntityOnboarding {
                 state.currentValue(),
                 args.completionTimeoutSeconds() - waitApprovalSecs,
                 null,
-                false);
+                false,
+                null,
+                null,
+                args.settings(),
+                true);
         // be sure to check that all handlers have been completed before CAN
         Workflow.await(Workflow::isEveryHandlerFinished);
         can.execute(canArgs);
@@ -146,10 +201,18 @@ public class EntityOnboardingImpl implements EntityOnboarding {
     }
 
     try {
-      if (Workflow.getVersion("REGISTER_CRM_ENTITY", Workflow.DEFAULT_VERSION, 1)
-          != Workflow.DEFAULT_VERSION) {
+      var registerCrmEntityVersion =
+          Workflow.getVersion("REGISTER_CRM_ENTITY", Workflow.DEFAULT_VERSION, 2);
+      if (registerCrmEntityVersion == 1) {
         integrationsHandlers.registerCrmEntity(
             new RegisterCrmEntityRequest(args.id(), args.value()));
+      } else if (registerCrmEntityVersion == 2) {
+        // The existence check is read-only, so it runs in this Worker as a Local Activity
+        // and we only pay for a Task Queue round trip when there is something to write.
+        if (!localIntegrationsHandlers.crmEntityExists(new CrmEntityExistsRequest(args.id()))) {
+          integrationsHandlers.createCrmEntity(
+              new RegisterCrmEntityRequest(args.id(), args.value()));
+        }
       }
     } catch (ActivityFailure e) {
       ApplicationFailure af = (ApplicationFailure) e.getCause();
@@ -174,6 +237,7 @@ public class EntityOnboardingImpl implements EntityOnboarding {
     state =
         new EntityOnboardingState(
             state.id(), state.currentValue(), new Approval(ApprovalStatus.APPROVED, cmd.comment()));
+    upsertSearchAttributes();
   }
 
   @Override
@@ -183,6 +247,84 @@ public class EntityOnboardingImpl implements EntityOnboarding {
     state =
         new EntityOnboardingState(
             state.id(), state.currentValue(), new Approval(ApprovalStatus.REJECTED, cmd.comment()));
+    upsertSearchAttributes();
+  }
+
+  @Override
+  public EntityOnboardingState approveEntity(ApproveEntityRequest cmd) {
+    approve(cmd);
+    return state;
+  }
+
+  @Override
+  public void validateApproveEntity(ApproveEntityRequest cmd) {
+    EntityOnboardingValidators.assertPendingApproval(state);
+  }
+
+  @Override
+  public EntityOnboardingState rejectEntity(RejectEntityRequest cmd) {
+    reject(cmd);
+    return state;
+  }
+
+  @Override
+  public void validateRejectEntity(RejectEntityRequest cmd) {
+    EntityOnboardingValidators.assertPendingApproval(state);
+  }
+
+  private void upsertSearchAttributes() {
+    // Executions started before we indexed onboardings must not emit the new Upsert command
+    if (Workflow.getVersion("UPSERT_SEARCH_ATTRIBUTES", Workflow.DEFAULT_VERSION, 1)
+        == Workflow.DEFAULT_VERSION) {
+      return;
+    }
+    Workflow.upsertTypedSearchAttributes(
+        EntityOnboardingSearchAttributes.APPROVAL_STATUS.valueSet(
+            state.approval().approvalStatus().name()),
+        EntityOnboardingSearchAttributes.ENTITY_ID.valueSet(state.id()),
+        EntityOnboardingSearchAttributes.HAS_DEPUTY_OWNER.valueSet(hasDeputyOwner));
+  }
+
+  private void requestDeputyOwnerApproval(
+      RequestDeputyOwnerApprovalRequest cmd, int digestWindowSeconds) {
+    if (Workflow.getVersion("DEPUTY_OWNER_DIGEST", Workflow.DEFAULT_VERSION, 1)
+        == Workflow.DEFAULT_VERSION) {
+      notificationHandlers.requestDeputyOwnerApproval(cmd);
+      return;
+    }
+    // Hand the request to the deputy's digest rather than emailing them once per entity.
+    var digestId = DeputyOwnerDigest.workflowIdFor(cmd.deputyOwnerEmail());
+    try {
+      Workflow.newExternalWorkflowStub(DeputyOwnerDigest.class, digestId).requestApproval(cmd);
+      return;
+    } catch (SignalExternalWorkflowException e) {
+      // no digest is collecting for this deputy right now
+    }
+    var digest =
+        Workflow.newChildWorkflowStub(
+            DeputyOwnerDigest.class,
+            ChildWorkflowOptions.newBuilder()
+                .setWorkflowId(digestId)
+                // the digest outlives this onboarding and serves the deputy's other entities
+                .setParentClosePolicy(ParentClosePolicy.PARENT_CLOSE_POLICY_ABANDON)
+                .build());
+    Async.procedure(
+        digest::execute,
+        new DeputyOwnerDigestRequest(
+            cmd.deputyOwnerEmail(), digestWindowSeconds, List.of(cmd.id())));
+    try {
+      Workflow.getWorkflowExecution(digest).get();
+    } catch (ChildWorkflowFailure e) {
+      // another onboarding started the digest first, so it is there to signal now
+      Workflow.newExternalWorkflowStub(DeputyOwnerDigest.class, digestId).requestApproval(cmd);
+    }
+  }
+
+  private boolean isHistoryTooLarge() {
+    var info = Workflow.getInfo();
+    return info.isContinueAsNewSuggested()
+        || info.getHistoryLength() > settings.maxHistoryLength()
+        || info.getHistorySize() > settings.maxHistorySizeBytes();
   }
 
   private void assertValidArgs(OnboardEntityRequest args) {
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.common.SearchAttributeKey;
+import java.util.List;
+
+// Typed Search Attributes upserted by `EntityOnboarding` so onboardings can be listed and
+// filtered through Visibility instead of querying each execution.
+// These must be registered with the Namespace before use, eg
+// `temporal operator search-attribute create --name OnboardingApprovalStatus --type Keyword`
+public final class EntityOnboardingSearchAttributes {
+  public static final SearchAttributeKey<String> APPROVAL_STATUS =
+      SearchAttributeKey.forKeyword("OnboardingApprovalStatus");
+  public static final SearchAttributeKey<String> ENTITY_ID =
+      SearchAttributeKey.forKeyword("OnboardingEntityId");
+  public static final SearchAttributeKey<Boolean> HAS_DEPUTY_OWNER =
+      SearchAttributeKey.forBoolean("OnboardingHasDeputyOwner");
+
+  public static final List<SearchAttributeKey<?>> ALL =
+      List.of(APPROVAL_STATUS, ENTITY_ID, HAS_DEPUTY_OWNER);
+
+  private EntityOnboardingSearchAttributes() {}
+}
@@ -148,6 +148,28 @@ public class EntityOnboardingV100Impl implements EntityOnboarding {
             state.id(), state.currentValue(), new Approval(ApprovalStatus.REJECTED, cmd.comment()));
   }
 
+  @Override
+  public EntityOnboardingState approveEntity(ApproveEntityRequest cmd) {
+    approve(cmd);
+    return state;
+  }
+
+  @Override
+  public void validateApproveEntity(ApproveEntityRequest cmd) {
+    EntityOnboardingValidators.assertPendingApproval(state);
+  }
+
+  @Override
+  public EntityOnboardingState rejectEntity(RejectEntityRequest cmd) {
+    reject(cmd);
+    return state;
+  }
+
+  @Override
+  public void validateRejectEntity(RejectEntityRequest cmd) {
+    EntityOnboardingValidators.assertPendingApproval(state);
+  }
+
   private void assertValidArgs(OnboardEntityRequest args) {
     if (args.id() == null
         || args.id().isEmpty()
@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+
+// Update validators shared by every `EntityOnboarding` implementation, so versions copied
+// aside keep rejecting Updates the same way as `latest`.
+final class EntityOnboardingValidators {
+  private EntityOnboardingValidators() {}
+
+  // Validators run before the Update is written to history, so rejecting here
+  // leaves no trace in the Workflow Execution.
+  static void assertPendingApproval(EntityOnboardingState state) {
+    if (!state.approval().approvalStatus().equals(ApprovalStatus.PENDING)) {
+      throw ApplicationFailure.newFailure(
+          String.format(
+              "Approval for %s is already %s", state.id(), state.approval().approvalStatus()),
+          Errors.APPROVAL_NOT_PENDING.name());
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.activity.ActivityOptions;
+import io.temporal.api.enums.v1.ParentClosePolicy;
+import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.failure.ChildWorkflowFailure;
+import io.temporal.onboardings.domain.batches.BatchesHandlers;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardBatchRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.queries.BatchEntity;
+import io.temporal.onboardings.domain.messages.queries.FetchBatchEntitiesRequest;
+import io.temporal.onboardings.domain.messages.queries.OnboardBatchState;
+import io.temporal.onboardings.domain.messages.values.OnboardBatchProgress;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.ChildWorkflowOptions;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInit;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.slf4j.Logger;
+
+// Onboards every entity in a batch source with at most `maxConcurrency` `EntityOnboarding`
+// children running at once. A slot is refilled as soon as any child closes, so a slow
+// entity does not hold up the rest of its page. Children wait for approval unless the batch
+// asks them to `skipApproval`, and a child waiting for approval keeps its slot.
+// Only a cursor into the source and the progress counters are kept, and the batch continues
+// as new (after draining its window) well before its history grows large.
+public class OnboardingBatchImpl implements OnboardingBatch {
+  // keep well under the 50K event limit; each child costs roughly a handful of events
+  static final int MAX_HISTORY_LENGTH = 10_000;
+
+  Logger logger = Workflow.getLogger(OnboardingBatchImpl.class);
+  private final BatchesHandlers batchesHandlers =
+      Workflow.newActivityStub(
+          BatchesHandlers.class,
+          ActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofSeconds(30)).build());
+  private final Deque<BatchEntity> pending = new ArrayDeque<>();
+  private final List<Promise<Void>> window = new ArrayList<>();
+  private final String id;
+  private long cursor;
+  private boolean exhausted;
+  private long started;
+  private long completed;
+  private long failed;
+  private long alreadyStarted;
+  private long malformed;
+
+  @WorkflowInit
+  public OnboardingBatchImpl(OnboardBatchRequest args) {
+    this.id = args.id();
+    this.cursor = args.cursor();
+    var progress = args.progress() == null ? new OnboardBatchProgress() : args.progress();
+    this.started = progress.started();
+    this.completed = progress.completed();
+    this.failed = progress.failed();
+    this.alreadyStarted = progress.alreadyStarted();
+    this.malformed = progress.malformed();
+  }
+
+  @Override
+  public OnboardBatchProgress execute(OnboardBatchRequest args) {
+    assertValidArgs(args);
+
+    while (true) {
+      var continueAsNew = shouldContinueAsNew();
+      while (!continueAsNew && window.size() < args.maxConcurrency() && hasMoreEntities(args)) {
+        startChild(args, pending.removeFirst());
+      }
+      if (window.isEmpty()) {
+        break;
+      }
+      Workflow.await(() -> window.stream().anyMatch(Promise::isCompleted));
+      window.removeIf(this::recordIfClosed);
+    }
+
+    if (exhausted && pending.isEmpty()) {
+      logger.info("Batch {} finished: {}", id, progress());
+      return progress();
+    }
+
+    // `pending` is dropped here; the cursor only advanced past entities that were started
+    var can = Workflow.newContinueAsNewStub(OnboardingBatch.class);
+    return can.execute(
+        new OnboardBatchRequest(
+            args.id(),
+            args.source(),
+            args.maxConcurrency(),
+            args.pageSize(),
+            args.completionTimeoutSeconds(),
+            args.skipApproval(),
+            cursor,
+            progress()));
+  }
+
+  @Override
+  public OnboardBatchState getState() {
+    return new OnboardBatchState(id, cursor, window.size(), exhausted, progress());
+  }
+
+  private boolean hasMoreEntities(OnboardBatchRequest args) {
+    if (pending.isEmpty() && !exhausted) {
+      var page =
+          batchesHandlers.fetchBatchEntities(
+              new FetchBatchEntitiesRequest(args.source(), cursor, args.pageSize()));
+      pending.addAll(page.entities());
+      exhausted = page.exhausted();
+    }
+    return !pending.isEmpty();
+  }
+
+  private void startChild(OnboardBatchRequest args, BatchEntity entity) {
+    cursor = entity.nextCursor();
+    if (entity.id() == null || entity.id().isEmpty()) {
+      logger.warn("Skipping batch entity without an id before offset {}", cursor);
+      malformed++;
+      return;
+    }
+    started++;
+    var child =
+        Workflow.newChildWorkflowStub(
+            EntityOnboarding.class,
+            ChildWorkflowOptions.newBuilder()
+                // same id the API uses, so an entity is never onboarded twice
+                .setWorkflowId(entity.id())
+                .setWorkflowIdReusePolicy(
+                    WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+                // cancelling or continuing the batch must not take its children with it
+                .setParentClosePolicy(ParentClosePolicy.PARENT_CLOSE_POLICY_ABANDON)
+                .build());
+    window.add(
+        Async.procedure(
+            child::execute,
+            new OnboardEntityRequest(
+                entity.id(),
+                entity.value(),
+                args.completionTimeoutSeconds(),
+                null,
+                args.skipApproval())));
+  }
+
+  private boolean recordIfClosed(Promise<Void> promise) {
+    if (!promise.isCompleted()) {
+      return false;
+    }
+    if (promise.getFailure() == null) {
+      completed++;
+    } else if (isAlreadyStarted(promise.getFailure())) {
+      logger.info("Batch {} child already started: {}", id, promise.getFailure().getMessage());
+      alreadyStarted++;
+    } else {
+      logger.info("Batch {} child failed: {}", id, promise.getFailure().getMessage());
+      failed++;
+    }
+    return true;
+  }
+
+  // a child rejected by its `REJECT_DUPLICATE` policy
+  private static boolean isAlreadyStarted(RuntimeException failure) {
+    return failure instanceof WorkflowExecutionAlreadyStarted
+        || (failure instanceof ChildWorkflowFailure
+            && failure.getCause() instanceof WorkflowExecutionAlreadyStarted);
+  }
+
+  private boolean shouldContinueAsNew() {
+    var info = Workflow.getInfo();
+    return info.isContinueAsNewSuggested() || info.getHistoryLength() > MAX_HISTORY_LENGTH;
+  }
+
+  private OnboardBatchProgress progress() {
+    return new OnboardBatchProgress(started, completed, failed, alreadyStarted, malformed);
+  }
+
+  private void assertValidArgs(OnboardBatchRequest args) {
+    if (args.id() == null
+        || args.id().isEmpty()
+        || args.source() == null
+        || args.source().isEmpty()
+        || args.maxConcurrency() < 1
+        || args.pageSize() < 1) {
+      throw ApplicationFailure.newFailure(
+          "id, source, maxConcurrency and pageSize are required", Errors.INVALID_ARGS.name());
+    }
+  }
+}
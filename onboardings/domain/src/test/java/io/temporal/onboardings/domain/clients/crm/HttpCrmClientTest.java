@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.clients.crm;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+public class HttpCrmClientTest {
+  private StubCrmServer server;
+
+  @BeforeEach
+  void beforeEach() {
+    server = new StubCrmServer(0, Duration.ofMillis(20));
+  }
+
+  @AfterEach
+  void afterEach() {
+    server.close();
+  }
+
+  private HttpCrmClient client(URI baseUri, int maxConcurrent) {
+    return new HttpCrmClient(baseUri, Duration.ofSeconds(1), Duration.ofSeconds(5), maxConcurrent);
+  }
+
+  @Test
+  public void getCustomerById_givenRegisteredCustomer_itShouldReturnIt() throws ConnectException {
+    var sut = client(server.baseUri(), 4);
+
+    sut.registerCustomer("id with/slash", "value");
+
+    Assertions.assertEquals("value", sut.getCustomerById("id with/slash"));
+    Assertions.assertEquals(List.of("id with/slash"), sut.listCustomerIds(100));
+    var e =
+        Assertions.assertThrows(
+            HttpClientErrorException.class, () -> sut.getCustomerById("missing"));
+    Assertions.assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+  }
+
+  @Test
+  public void registerCustomerAsync_givenMoreRequestsThanPermits_itShouldCompleteThemAll()
+      throws Exception {
+    var sut = client(server.baseUri(), 4);
+
+    var results =
+        IntStream.range(0, 50)
+            .mapToObj(i -> sut.registerCustomerAsync("id-" + i, "value-" + i))
+            .toList();
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(50, server.customerCount());
+    Assertions.assertEquals(50, sut.listCustomerIds(100).size());
+    Assertions.assertEquals(10, sut.listCustomerIds(10).size());
+    Assertions.assertEquals("value-49", sut.getCustomerById("id-49"));
+  }
+
+  @Test
+  public void registerCustomers_givenABatch_itShouldSendOneRequest() throws ConnectException {
+    var sut = client(server.baseUri(), 4);
+    var customers =
+        IntStream.range(0, 20).mapToObj(i -> new CrmCustomer("id " + i, "value&=" + i)).toList();
+
+    var rejected = sut.registerCustomers(customers);
+
+    Assertions.assertEquals(Map.of(), rejected);
+    Assertions.assertEquals(1, server.requestCount());
+    Assertions.assertEquals(20, server.customerCount());
+    Assertions.assertEquals("value&=19", sut.getCustomerById("id 19"));
+  }
+
+  @Test
+  public void registerCustomer_givenNoServer_itShouldThrowConnectException() {
+    var baseUri = server.baseUri();
+    server.close();
+    var sut = client(baseUri, 4);
+
+    Assertions.assertThrows(ConnectException.class, () -> sut.registerCustomer("id", "value"));
+    Assertions.assertThrows(ConnectException.class, () -> sut.getCustomerById("id"));
+    Assertions.assertThrows(ConnectException.class, () -> sut.listCustomerIds(10));
+  }
+}
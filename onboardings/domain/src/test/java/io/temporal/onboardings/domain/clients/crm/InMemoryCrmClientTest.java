@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.clients.crm;
+
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.HttpClientErrorException;
+
+public class InMemoryCrmClientTest {
+  @TempDir Path tempDir;
+
+  @Test
+  public void getCustomerById_givenRegisteredCustomer_itShouldReturnIt() throws ConnectException {
+    var sut = new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024);
+    var id = UUID.randomUUID().toString();
+
+    sut.registerCustomer(id, "value");
+
+    Assertions.assertEquals("value", sut.getCustomerById(id));
+    Assertions.assertThrows(
+        HttpClientErrorException.class, () -> sut.getCustomerById(UUID.randomUUID().toString()));
+  }
+
+  @Test
+  public void getCustomerById_givenLogEnabled_itShouldSurviveARestart() throws Exception {
+    var path = tempDir.resolve("crm.log");
+    // small enough to spread the log across many segments
+    var before = new InMemoryCrmClient(true, path, 64);
+    var executor = Executors.newFixedThreadPool(8);
+    IntStream.range(0, 1000)
+        .forEach(
+            i ->
+                executor.execute(
+                    () -> {
+                      try {
+                        before.registerCustomer("id-" + i, "value-" + i);
+                      } catch (ConnectException e) {
+                        throw new RuntimeException(e);
+                      }
+                    }));
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    before.destroy();
+    Assertions.assertTrue(Files.exists(tempDir.resolve("crm.log.1")));
+
+    var after = new InMemoryCrmClient(true, path, 64);
+
+    IntStream.range(0, 1000)
+        .forEach(i -> Assertions.assertEquals("value-" + i, after.getCustomerById("id-" + i)));
+    after.destroy();
+  }
+
+  @Test
+  public void registerCustomer_givenRecordLargerThanASegment_itShouldRefuseIt() {
+    var sut = new InMemoryCrmClient(true, tempDir.resolve("crm.log"), 64);
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> sut.registerCustomer("id", "v".repeat(64)));
+    sut.destroy();
+  }
+}
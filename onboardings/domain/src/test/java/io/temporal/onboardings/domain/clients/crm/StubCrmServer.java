@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.clients.crm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Embedded stand-in for the CRM's HTTP API, for tests and benchmarks of `HttpCrmClient`.
+// Every response is delayed by `latency` to approximate a remote CRM.
+//   PUT  /customers/{id}  (body: value)               -> 204
+//   POST /customers       (body: form-encoded id=value) -> 204
+//   GET  /customers/{id}                              -> 200 value | 404
+//   GET  /customers?limit=n                           -> 200 up to n newline-separated ids
+// Lives with the tests (the jmh source set sees them too). Run it standalone from the test
+// classpath with `StubCrmServer <port> <latency-millis>` and point Workers at it with
+// `spring.curriculum.crm.client=http`.
+public class StubCrmServer implements AutoCloseable {
+  Logger logger = LoggerFactory.getLogger(StubCrmServer.class);
+  private static final String PREFIX = "/customers";
+
+  private final ConcurrentHashMap<String, String> customers = new ConcurrentHashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final Duration latency;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  public StubCrmServer(int port, Duration latency) {
+    this.latency = latency;
+    this.executor = Executors.newCachedThreadPool();
+    try {
+      this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    server.createContext(PREFIX, this::handle);
+    server.setExecutor(executor);
+    server.start();
+    logger.info("Stub CRM listening on {} with {} latency", baseUri(), latency);
+  }
+
+  public URI baseUri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  public int customerCount() {
+    return customers.size();
+  }
+
+  public int requestCount() {
+    return requests.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try {
+      if (!latency.isZero()) {
+        Thread.sleep(latency.toMillis());
+      }
+      var path = exchange.getRequestURI().getPath();
+      var id = path.length() > PREFIX.length() + 1 ? path.substring(PREFIX.length() + 1) : null;
+      switch (exchange.getRequestMethod()) {
+        case "PUT" -> {
+          if (id == null) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+          }
+          customers.put(
+              id, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+          exchange.sendResponseHeaders(204, -1);
+        }
+        case "POST" -> {
+          if (id != null) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+          }
+          registerAll(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+          exchange.sendResponseHeaders(204, -1);
+        }
+        case "GET" -> {
+          var value = id == null ? listIds(exchange.getRequestURI().getQuery()) : customers.get(id);
+          if (value == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+          }
+          var body = value.getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+          exchange.getResponseBody().write(body);
+        }
+        default -> exchange.sendResponseHeaders(405, -1);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void registerAll(String form) {
+    for (var pair : form.split("&")) {
+      var separator = pair.indexOf('=');
+      if (separator > 0) {
+        customers.put(
+            URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private String listIds(String query) {
+    var limit =
+        query != null && query.startsWith("limit=")
+            ? Long.parseLong(query.substring("limit=".length()))
+            : Long.MAX_VALUE;
+    return String.join("\n", customers.keySet().stream().limit(limit).toList());
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    var port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+    var latency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 20);
+    var server = new StubCrmServer(port, latency);
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    Thread.currentThread().join();
+  }
+}
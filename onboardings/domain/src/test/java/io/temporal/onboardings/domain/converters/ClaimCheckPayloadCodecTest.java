@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.payload.codec.PayloadCodecException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClaimCheckPayloadCodecTest {
+  @TempDir Path blobs;
+
+  @Test
+  public void encode_givenPayloadAboveThreshold_itShouldStoreAReferenceAndRoundTrip() {
+    var sut = new ClaimCheckPayloadCodec(new LocalBlobStore(blobs, 1024 * 1024), 1024);
+    var payload = payloadOf(UUID.randomUUID().toString().repeat(100));
+
+    var encoded = sut.encode(List.of(payload));
+
+    Assertions.assertEquals(
+        ClaimCheckPayloadCodec.ENCODING,
+        encoded.get(0).getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY).toStringUtf8());
+    Assertions.assertTrue(encoded.get(0).getSerializedSize() < 128);
+    Assertions.assertEquals(payload, sut.decode(encoded).get(0));
+  }
+
+  @Test
+  public void encode_givenIdenticalPayloads_itShouldStoreOneBlob() throws IOException {
+    var sut = new ClaimCheckPayloadCodec(new LocalBlobStore(blobs, 1024 * 1024), 1024);
+    var value = UUID.randomUUID().toString().repeat(100);
+
+    var first = sut.encode(List.of(payloadOf(value)));
+    var second = sut.encode(List.of(payloadOf(value)));
+
+    Assertions.assertEquals(first, second);
+    try (var files = Files.walk(blobs)) {
+      Assertions.assertEquals(1, files.filter(Files::isRegularFile).count());
+    }
+  }
+
+  @Test
+  public void decode_givenColdCache_itShouldReadTheBlobFromDisk() {
+    var payload = payloadOf(UUID.randomUUID().toString().repeat(100));
+    var encoded =
+        new ClaimCheckPayloadCodec(new LocalBlobStore(blobs, 1024 * 1024), 1024)
+            .encode(List.of(payload));
+
+    var sut = new ClaimCheckPayloadCodec(new LocalBlobStore(blobs, 1024 * 1024), 1024);
+
+    Assertions.assertEquals(payload, sut.decode(encoded).get(0));
+  }
+
+  @Test
+  public void decode_givenMissingBlob_itShouldFail() {
+    var payload = payloadOf(UUID.randomUUID().toString().repeat(100));
+    var encoded =
+        new ClaimCheckPayloadCodec(new LocalBlobStore(blobs.resolve("a"), 0), 1024)
+            .encode(List.of(payload));
+
+    var sut = new ClaimCheckPayloadCodec(new LocalBlobStore(blobs.resolve("b"), 0), 1024);
+
+    Assertions.assertThrows(PayloadCodecException.class, () -> sut.decode(encoded));
+  }
+
+  private static Payload payloadOf(String value) {
+    return DefaultDataConverter.STANDARD_INSTANCE
+        .toPayload(new OnboardEntityRequest("id", value, 60, null, false))
+        .orElseThrow();
+  }
+}
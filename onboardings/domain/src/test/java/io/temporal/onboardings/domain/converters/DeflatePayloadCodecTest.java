@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DeflatePayloadCodecTest {
+  private final DeflatePayloadCodec sut = new DeflatePayloadCodec(1024);
+
+  @Test
+  public void encode_givenPayloadAboveThreshold_itShouldCompressAndRoundTrip() {
+    var payload = payloadOf("{\"key\":\"value\"}".repeat(500));
+
+    var encoded = sut.encode(List.of(payload));
+
+    Assertions.assertEquals(
+        DeflatePayloadCodec.ENCODING,
+        encoded.get(0).getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY).toStringUtf8());
+    Assertions.assertTrue(encoded.get(0).getSerializedSize() < payload.getSerializedSize());
+    Assertions.assertEquals(payload, sut.decode(encoded).get(0));
+  }
+
+  @Test
+  public void encode_givenPayloadBelowThreshold_itShouldLeaveItUntouched() {
+    var payload = payloadOf("small");
+
+    Assertions.assertSame(payload, sut.encode(List.of(payload)).get(0));
+  }
+
+  @Test
+  public void decode_givenPayloadWrittenBeforeTheCodec_itShouldLeaveItUntouched() {
+    var payload = payloadOf("{\"key\":\"value\"}".repeat(500));
+
+    Assertions.assertSame(payload, sut.decode(List.of(payload)).get(0));
+  }
+
+  private static Payload payloadOf(String value) {
+    return DefaultDataConverter.STANDARD_INSTANCE
+        .toPayload(new OnboardEntityRequest("id", value, 60, null, false))
+        .orElseThrow();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.converters;
+
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
+import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SmilePayloadConverterTest {
+  private final EntityOnboardingState state =
+      new EntityOnboardingState("id", "value", new Approval(ApprovalStatus.PENDING, null));
+
+  @Test
+  public void toPayload_givenDomainMessage_itShouldWriteSmileAndRoundTrip() {
+    var sut = ConvertersConfiguration.payloadConverter(true);
+
+    var payload = sut.toPayload(state).orElseThrow();
+
+    Assertions.assertEquals(
+        SmilePayloadConverter.ENCODING,
+        payload.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY).toStringUtf8());
+    Assertions.assertEquals(
+        state, sut.fromPayload(payload, EntityOnboardingState.class, EntityOnboardingState.class));
+  }
+
+  @Test
+  public void toPayload_givenOtherValue_itShouldLeaveItToJson() {
+    var sut = ConvertersConfiguration.payloadConverter(true);
+
+    var payload = sut.toPayload("a string").orElseThrow();
+
+    Assertions.assertEquals(
+        "json/plain",
+        payload.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY).toStringUtf8());
+  }
+
+  @Test
+  public void fromPayload_givenJsonWrittenBeforeSmileWasEnabled_itShouldDecode() {
+    var json = ConvertersConfiguration.payloadConverter(false).toPayload(state).orElseThrow();
+
+    var sut = ConvertersConfiguration.payloadConverter(true);
+
+    Assertions.assertEquals(
+        state, sut.fromPayload(json, EntityOnboardingState.class, EntityOnboardingState.class));
+  }
+
+  @Test
+  public void fromPayload_givenSmileWhileDisabled_itShouldStillDecode() {
+    var smile = ConvertersConfiguration.payloadConverter(true).toPayload(state).orElseThrow();
+
+    var sut = ConvertersConfiguration.payloadConverter(false);
+
+    Assertions.assertEquals(
+        state, sut.fromPayload(smile, EntityOnboardingState.class, EntityOnboardingState.class));
+  }
+}
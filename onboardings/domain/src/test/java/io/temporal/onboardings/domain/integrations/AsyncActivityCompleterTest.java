@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import io.temporal.client.ActivityCanceledException;
+import io.temporal.client.ActivityCompletionClient;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class AsyncActivityCompleterTest {
+  private final byte[] taskToken = new byte[] {1, 2, 3};
+  private ActivityCompletionClient completionClient;
+  private AsyncActivityCompleter sut;
+
+  @BeforeEach
+  void beforeEach() {
+    completionClient = Mockito.mock(ActivityCompletionClient.class);
+    sut = new AsyncActivityCompleter(completionClient, Duration.ofMillis(20), 2, 2);
+  }
+
+  @AfterEach
+  void afterEach() {
+    sut.destroy();
+  }
+
+  @Test
+  public void completeWhenDone_givenWorkInFlight_itShouldHeartbeatThenComplete() {
+    var work = new CompletableFuture<Void>();
+
+    sut.completeWhenDone(taskToken, work, cause -> (Exception) cause);
+
+    verify(completionClient, timeout(1000).atLeast(2)).heartbeat(same(taskToken), isNull());
+    verify(completionClient, never()).complete(any(), any());
+    work.complete(null);
+    verify(completionClient, timeout(1000)).complete(same(taskToken), isNull());
+  }
+
+  @Test
+  public void completeWhenDone_givenWorkDone_itShouldCompleteOffTheFinishingThread() {
+    var work = new CompletableFuture<Void>();
+    var completingThread = new AtomicReference<String>();
+    doAnswer(
+            invocation -> {
+              completingThread.set(Thread.currentThread().getName());
+              return null;
+            })
+        .when(completionClient)
+        .complete(same(taskToken), isNull());
+
+    sut.completeWhenDone(taskToken, work, cause -> (Exception) cause);
+    work.complete(null);
+
+    verify(completionClient, timeout(1000)).complete(same(taskToken), isNull());
+    Assertions.assertEquals("async-activity-completions", completingThread.get());
+  }
+
+  @Test
+  public void completeWhenDone_givenFailedWork_itShouldFailWithTheMappedCause() {
+    var work = new CompletableFuture<Void>();
+    var mapped = new IllegalStateException("mapped");
+
+    sut.completeWhenDone(
+        taskToken,
+        work,
+        cause -> {
+          Assertions.assertInstanceOf(ConnectException.class, cause);
+          return mapped;
+        });
+    work.completeExceptionally(new CompletionException(new ConnectException("down")));
+
+    verify(completionClient, timeout(1000)).completeExceptionally(same(taskToken), eq(mapped));
+  }
+
+  @Test
+  public void completeWhenDone_givenCancelledActivity_itShouldCancelTheWork() {
+    var work = new CompletableFuture<Void>();
+    doThrow(new ActivityCanceledException())
+        .when(completionClient)
+        .heartbeat(same(taskToken), isNull());
+
+    sut.completeWhenDone(taskToken, work, cause -> (Exception) cause);
+
+    verify(completionClient, timeout(1000)).heartbeat(same(taskToken), isNull());
+    verify(completionClient, after(200).never()).completeExceptionally(any(), any());
+    Assertions.assertTrue(work.isCancelled());
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CrmCallGuardTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private CrmCallGuard guard(int initialLimit, Duration targetLatency, Duration openDuration) {
+    return new CrmCallGuard(
+        meterRegistry, true, initialLimit, 1, 100, targetLatency, 3, openDuration);
+  }
+
+  @Test
+  public void acquire_givenLimitReached_itShouldFailFastWithRetryableBackoff() {
+    var sut = guard(2, Duration.ofMillis(250), Duration.ofSeconds(10));
+    sut.acquire();
+    sut.acquire();
+
+    var e = Assertions.assertThrows(ApplicationFailure.class, sut::acquire);
+
+    Assertions.assertEquals(Errors.SERVICE_OVERLOADED.name(), e.getType());
+    Assertions.assertFalse(e.isNonRetryable());
+    Assertions.assertEquals(Duration.ofMillis(250), e.getNextRetryDelay());
+    Assertions.assertEquals(2, meterRegistry.get("crm.guard.in_flight").gauge().value());
+  }
+
+  @Test
+  public void release_givenFastSuccessesAndSlowCalls_itShouldAdaptTheLimit() throws Exception {
+    var sut = guard(10, Duration.ofMillis(50), Duration.ofSeconds(10));
+
+    IntStream.range(0, 10).forEach(i -> sut.acquire().success());
+    Assertions.assertTrue(sut.limit() > 10);
+
+    var slow = sut.acquire();
+    Thread.sleep(100);
+    var before = sut.limit();
+    slow.success();
+    Assertions.assertEquals(before * 0.9, sut.limit(), 0.0001);
+    Assertions.assertEquals(sut.limit(), meterRegistry.get("crm.guard.limit").gauge().value());
+  }
+
+  @Test
+  public void acquire_givenConsecutiveFailures_itShouldOpenThenProbeToClose() throws Exception {
+    var sut = guard(10, Duration.ofSeconds(1), Duration.ofMillis(200));
+
+    IntStream.range(0, 3).forEach(i -> sut.acquire().failure());
+
+    Assertions.assertEquals(CrmCallGuard.CircuitState.OPEN, sut.state());
+    var e = Assertions.assertThrows(ApplicationFailure.class, sut::acquire);
+    Assertions.assertFalse(e.isNonRetryable());
+    Assertions.assertTrue(e.getNextRetryDelay().compareTo(Duration.ofMillis(200)) <= 0);
+    Assertions.assertEquals(2, meterRegistry.get("crm.guard.circuit_state").gauge().value());
+
+    Thread.sleep(250);
+    var probe = sut.acquire();
+    Assertions.assertEquals(CrmCallGuard.CircuitState.HALF_OPEN, sut.state());
+    Assertions.assertThrows(ApplicationFailure.class, sut::acquire);
+    probe.success();
+
+    Assertions.assertEquals(CrmCallGuard.CircuitState.CLOSED, sut.state());
+    sut.acquire().success();
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.onboardings.domain.clients.crm.InMemoryCrmClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CrmIdFilterTest {
+  private static final Duration SEED_AGE = Duration.ofMinutes(10);
+  private static final Duration RESEED = Duration.ofMinutes(5);
+  @TempDir Path tempDir;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  public void mightContain_givenSeededAndAddedIds_itShouldNeverMissThem() throws Exception {
+    var crmClient = new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024);
+    for (var i = 0; i < 1000; i++) {
+      crmClient.registerCustomer("seeded-" + i, "value");
+    }
+    var sut = new CrmIdFilter(crmClient, meterRegistry, true, true, SEED_AGE, RESEED, 10_000, 0.01);
+    IntStream.range(0, 1000).forEach(i -> sut.add("added-" + i));
+
+    IntStream.range(0, 1000)
+        .forEach(
+            i -> {
+              Assertions.assertTrue(sut.mightContain("seeded-" + i));
+              Assertions.assertTrue(sut.mightContain("added-" + i));
+            });
+  }
+
+  @Test
+  public void mightContain_givenUnknownIds_itShouldMostlyAnswerAbsent() {
+    var sut =
+        new CrmIdFilter(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            meterRegistry,
+            true,
+            true,
+            SEED_AGE,
+            RESEED,
+            10_000,
+            0.01);
+    IntStream.range(0, 10_000).forEach(i -> sut.add("known-" + i));
+
+    var maybes = IntStream.range(0, 10_000).filter(i -> sut.mightContain("new-" + i)).count();
+
+    // expected ~1%; allow for variance
+    Assertions.assertTrue(maybes < 300, "false positives: " + maybes);
+    var absent = meterRegistry.get("crm.id_filter.checks").tag("result", "absent").counter();
+    Assertions.assertEquals(10_000 - maybes, (long) absent.count());
+  }
+
+  @Test
+  public void mightContain_givenDisabled_itShouldAlwaysAnswerMaybe() {
+    var sut =
+        new CrmIdFilter(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            meterRegistry,
+            false,
+            true,
+            SEED_AGE,
+            RESEED,
+            10_000,
+            0.01);
+
+    Assertions.assertTrue(sut.mightContain("anything"));
+  }
+
+  @Test
+  public void mightContain_givenOtherWritersMayRegister_itShouldAlwaysAnswerMaybe() {
+    var sut =
+        new CrmIdFilter(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            meterRegistry,
+            true,
+            false,
+            SEED_AGE,
+            RESEED,
+            10_000,
+            0.01);
+
+    Assertions.assertTrue(sut.mightContain("registered-by-another-worker"));
+  }
+
+  @Test
+  public void mightContain_givenStaleSeed_itShouldAlwaysAnswerMaybe() {
+    var sut =
+        new CrmIdFilter(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            meterRegistry,
+            true,
+            true,
+            Duration.ZERO,
+            RESEED,
+            10_000,
+            0.01);
+
+    Assertions.assertTrue(sut.mightContain("registered-since-seeding"));
+  }
+
+  @Test
+  public void mightContain_givenMoreIdsThanExpected_itShouldNotSeed() throws Exception {
+    var crmClient = new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024);
+    for (var i = 0; i < 11; i++) {
+      crmClient.registerCustomer("seeded-" + i, "value");
+    }
+    var sut = new CrmIdFilter(crmClient, meterRegistry, true, true, SEED_AGE, RESEED, 10, 0.01);
+
+    Assertions.assertTrue(sut.mightContain("never-registered"));
+  }
+
+  @Test
+  public void reseed_givenExpiredSeed_itShouldAnswerAbsentAgainAndKnowNewIds() throws Exception {
+    var crmClient = new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024);
+    var sut =
+        new CrmIdFilter(
+            crmClient, meterRegistry, true, true, Duration.ofMillis(200), RESEED, 10_000, 0.01);
+    Thread.sleep(250);
+    Assertions.assertTrue(sut.mightContain("new-0"), "an expired seed must answer maybe");
+    crmClient.registerCustomer("registered-out-of-band", "value");
+
+    Assertions.assertTrue(sut.reseed());
+
+    Assertions.assertTrue(sut.mightContain("registered-out-of-band"));
+    var maybes = IntStream.range(0, 1000).filter(i -> sut.mightContain("new-" + i)).count();
+    Assertions.assertTrue(maybes < 50, "false positives: " + maybes);
+    sut.destroy();
+  }
+
+  @Test
+  public void mightContain_givenReseedInterval_itShouldKeepTheSeedFresh() throws Exception {
+    var sut =
+        new CrmIdFilter(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            meterRegistry,
+            true,
+            true,
+            Duration.ofMillis(200),
+            Duration.ofMillis(50),
+            10_000,
+            0.01);
+    Thread.sleep(500);
+
+    var maybes = IntStream.range(0, 1000).filter(i -> sut.mightContain("new-" + i)).count();
+    Assertions.assertTrue(maybes < 50, "false positives: " + maybes);
+    sut.destroy();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.integrations;
+
+import io.temporal.onboardings.domain.clients.crm.CrmClient;
+import io.temporal.onboardings.domain.clients.crm.CrmCustomer;
+import io.temporal.onboardings.domain.clients.crm.InMemoryCrmClient;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CrmRegistrationBatcherTest {
+  @TempDir Path tempDir;
+
+  @Test
+  public void register_givenConcurrentRegistrations_itShouldSendThemInBatches() throws Exception {
+    var calls = new AtomicInteger();
+    var crmClient =
+        new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024) {
+          @Override
+          public Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers)
+              throws ConnectException {
+            calls.incrementAndGet();
+            return super.registerCustomers(customers);
+          }
+        };
+    var sut = new CrmRegistrationBatcher(crmClient, true, Duration.ofMillis(50), 10, 4);
+
+    var results =
+        IntStream.range(0, 25).mapToObj(i -> sut.register("id-" + i, "value-" + i)).toList();
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+    IntStream.range(0, 25)
+        .forEach(i -> Assertions.assertEquals("value-" + i, crmClient.getCustomerById("id-" + i)));
+    Assertions.assertTrue(calls.get() >= 3 && calls.get() < 25);
+    sut.destroy();
+  }
+
+  @Test
+  public void register_givenSlowFlushes_itShouldSendUpToMaxInFlightBatchesConcurrently()
+      throws Exception {
+    var sending = new AtomicInteger();
+    var maxSending = new AtomicInteger();
+    var unblock = new CountDownLatch(1);
+    CrmClient crmClient =
+        new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024) {
+          @Override
+          public Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers) {
+            maxSending.accumulateAndGet(sending.incrementAndGet(), Math::max);
+            try {
+              unblock.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              sending.decrementAndGet();
+            }
+            return Map.of();
+          }
+        };
+    var sut = new CrmRegistrationBatcher(crmClient, true, Duration.ofMillis(1), 1, 2);
+
+    var results =
+        IntStream.range(0, 4).mapToObj(i -> sut.register("id-" + i, "value-" + i)).toList();
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (sending.get() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+
+    Assertions.assertEquals(2, sending.get());
+    unblock.countDown();
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    Assertions.assertEquals(2, maxSending.get());
+    sut.destroy();
+  }
+
+  @Test
+  public void register_givenRejectedCustomer_itShouldOnlyFailThatRegistration() throws Exception {
+    CrmClient crmClient =
+        new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024) {
+          @Override
+          public Map<String, RuntimeException> registerCustomers(List<CrmCustomer> customers) {
+            return Map.of("bad", new IllegalArgumentException("bad"));
+          }
+        };
+    var sut = new CrmRegistrationBatcher(crmClient, true, Duration.ofMillis(50), 10, 4);
+
+    var good = sut.register("good", "value");
+    var bad = sut.register("bad", "value");
+
+    Assertions.assertNull(good.get(5, TimeUnit.SECONDS));
+    var e = Assertions.assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+    Assertions.assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    sut.destroy();
+  }
+
+  @Test
+  public void register_givenConnectivityProblem_itShouldFailTheWholeBatch() throws Exception {
+    var sut =
+        new CrmRegistrationBatcher(
+            new InMemoryCrmClient(false, tempDir.resolve("crm.log"), 1024),
+            true,
+            Duration.ofMillis(50),
+            10,
+            4);
+
+    var first = sut.register("first", "value");
+    var second = sut.register("second", "timeout");
+
+    for (var result : List.of(first, second)) {
+      var e =
+          Assertions.assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+      Assertions.assertInstanceOf(ConnectException.class, e.getCause());
+    }
+    sut.destroy();
+  }
+}
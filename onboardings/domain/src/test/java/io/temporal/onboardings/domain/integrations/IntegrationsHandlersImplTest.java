@@ -33,6 +33,7 @@ import io.temporal.onboardings.domain.DomainConfig;
 import io.temporal.onboardings.domain.clients.crm.CrmClient;
 import io.temporal.onboardings.domain.messages.commands.RegisterCrmEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import io.temporal.onboardings.domain.messages.queries.CrmEntityExistsRequest;
 import io.temporal.testing.TestActivityEnvironment;
 import io.temporal.testing.TestEnvironmentOptions;
 import java.net.ConnectException;
@@ -58,7 +59,8 @@ import org.springframework.web.client.HttpClientErrorException;
 @SpringBootTest(
     classes = {
       IntegrationsHandlersImplTest.Configuration.class,
-    })
+    },
+    properties = "spring.curriculum.crm.guard.enabled=true")
 @ActiveProfiles("test")
 @TestInstance(TestInstance.Lifecycle.PER_METHOD)
 @EnableAutoConfiguration()
@@ -73,6 +75,8 @@ public class IntegrationsHandlersImplTest {
 
   @Autowired IntegrationsHandlers sut;
 
+  @Autowired CrmCallGuard crmCallGuard;
+
   @MockBean CrmClient crmClient;
 
   @Value("${spring.temporal.workers[0].task-queue}")
@@ -90,7 +94,8 @@ public class IntegrationsHandlersImplTest {
   }
 
   @Test
-  public void registerCrmEntity_givenConnectivityProblem_shouldThrowServiceUnrecoverable() {
+  public void registerCrmEntity_givenConnectivityProblem_shouldThrowServiceUnrecoverable()
+      throws ConnectException {
     var cmd =
         new RegisterCrmEntityRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString());
 
@@ -113,6 +118,54 @@ public class IntegrationsHandlersImplTest {
     Assertions.assertEquals(Errors.SERVICE_UNRECOVERABLE.name(), ae.getType());
   }
 
+  @Test
+  public void crmEntityExists_givenEntityIsRegistered_shouldReturnTrue() throws ConnectException {
+    var cmd = new CrmEntityExistsRequest(UUID.randomUUID().toString());
+    when(crmClient.getCustomerById(cmd.id())).thenReturn(UUID.randomUUID().toString());
+    var stub = testActivityEnvironment.newActivityStub(IntegrationsHandlers.class);
+
+    Assertions.assertTrue(stub.crmEntityExists(cmd));
+  }
+
+  @Test
+  public void createCrmEntity_givenConnectivityProblem_shouldThrowServiceUnrecoverable() {
+    var cmd =
+        new RegisterCrmEntityRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+    try {
+      Mockito.doThrow(ConnectException.class).when(crmClient).registerCustomer(any(), any());
+    } catch (ConnectException e) {
+      throw new RuntimeException(e);
+    }
+    var stub = testActivityEnvironment.newActivityStub(IntegrationsHandlers.class);
+
+    var e =
+        Assertions.assertThrows(
+            ActivityFailure.class,
+            () -> {
+              stub.createCrmEntity(cmd);
+            });
+    var ae = Assertions.assertInstanceOf(ApplicationFailure.class, e.getCause());
+    Assertions.assertEquals(Errors.SERVICE_UNRECOVERABLE.name(), ae.getType());
+  }
+
+  @Test
+  public void createCrmEntity_givenClientErrors_shouldNotOpenTheCrmCircuit()
+      throws ConnectException {
+    Mockito.doThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST))
+        .when(crmClient)
+        .registerCustomer(any(), any());
+    var stub = testActivityEnvironment.newActivityStub(IntegrationsHandlers.class);
+
+    for (var i = 0; i < 10; i++) {
+      var cmd =
+          new RegisterCrmEntityRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+      var e = Assertions.assertThrows(ActivityFailure.class, () -> stub.createCrmEntity(cmd));
+      var ae = Assertions.assertInstanceOf(ApplicationFailure.class, e.getCause());
+      Assertions.assertEquals(HttpClientErrorException.class.getName(), ae.getType());
+    }
+    Assertions.assertEquals(CrmCallGuard.CircuitState.CLOSED, crmCallGuard.state());
+  }
+
   @ComponentScan
   public static class Configuration {}
 }
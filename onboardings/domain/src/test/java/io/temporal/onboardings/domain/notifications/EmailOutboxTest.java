@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.notifications;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.onboardings.domain.clients.email.EmailClient;
+import io.temporal.onboardings.domain.clients.email.EmailMessage;
+import io.temporal.onboardings.domain.messages.orchestrations.Errors;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EmailOutboxTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private EmailOutbox outbox(EmailClient emailClient, int capacity) {
+    return new EmailOutbox(
+        emailClient,
+        meterRegistry,
+        true,
+        capacity,
+        Duration.ofMillis(50),
+        10,
+        Duration.ofMillis(100));
+  }
+
+  @Test
+  public void send_givenManyEmails_itShouldSubmitThemInBatches() throws Exception {
+    var batchSizes = new CopyOnWriteArrayList<Integer>();
+    var emailClient =
+        new EmailClient() {
+          @Override
+          public void sendEmail(String email, String body) {}
+
+          @Override
+          public Map<String, RuntimeException> sendEmails(List<EmailMessage> messages) {
+            batchSizes.add(messages.size());
+            return Map.of();
+          }
+        };
+    var sut = outbox(emailClient, 100);
+
+    var results = IntStream.range(0, 25).mapToObj(i -> sut.send("a@example.com", "body")).toList();
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    Assertions.assertTrue(batchSizes.size() >= 3 && batchSizes.size() < 25);
+    Assertions.assertEquals(
+        25, meterRegistry.get("email.outbox.latency").tag("result", "delivered").timer().count());
+    sut.destroy();
+  }
+
+  @Test
+  public void send_givenUndeliverableEmail_itShouldOnlyFailThatEmail() throws Exception {
+    EmailClient emailClient =
+        (email, body) -> {
+          if (email.startsWith("bad")) {
+            throw new IllegalArgumentException("mailbox unavailable");
+          }
+        };
+    var sut = outbox(emailClient, 100);
+
+    var good = sut.send("good@example.com", "body");
+    var bad = sut.send("bad@example.com", "body");
+
+    Assertions.assertNull(good.get(5, TimeUnit.SECONDS));
+    var e = Assertions.assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+    Assertions.assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    sut.destroy();
+  }
+
+  @Test
+  public void send_givenFullQueue_itShouldFailWithRetryableBackoff() throws Exception {
+    var submitting = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    EmailClient emailClient =
+        (email, body) -> {
+          submitting.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    var sut = outbox(emailClient, 1);
+
+    var first = sut.send("first@example.com", "body");
+    Assertions.assertTrue(submitting.await(5, TimeUnit.SECONDS));
+    var second = sut.send("second@example.com", "body");
+
+    var e =
+        Assertions.assertThrows(
+            ApplicationFailure.class, () -> sut.send("third@example.com", "body"));
+    Assertions.assertEquals(Errors.SERVICE_OVERLOADED.name(), e.getType());
+    Assertions.assertFalse(e.isNonRetryable());
+    Assertions.assertEquals(1, meterRegistry.get("email.outbox.depth").gauge().value());
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+    sut.destroy();
+  }
+}
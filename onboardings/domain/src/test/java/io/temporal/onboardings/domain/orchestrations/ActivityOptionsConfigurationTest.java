@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.metadata.POJOActivityInterfaceMetadata;
+import io.temporal.common.metadata.POJOActivityMethodMetadata;
+import io.temporal.onboardings.domain.integrations.IntegrationsHandlers;
+import io.temporal.onboardings.domain.notifications.NotificationsHandlers;
+import io.temporal.worker.WorkflowImplementationOptions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ActivityOptionsConfigurationTest {
+  private static final Duration START_TO_CLOSE = Duration.ofSeconds(60);
+  private static final Duration HEARTBEAT = Duration.ofSeconds(10);
+  private final ActivityOptionsConfiguration sut = new ActivityOptionsConfiguration();
+
+  @Test
+  public void customize_givenTaskQueues_itShouldRouteEveryActivityTypeOfEachInterface() {
+    var activityOptions = customize("integrations", "notifications", false);
+
+    activityTypes(IntegrationsHandlers.class)
+        .forEach(
+            type ->
+                Assertions.assertEquals(
+                    "integrations", activityOptions.get(type).getTaskQueue(), type));
+    activityTypes(NotificationsHandlers.class)
+        .forEach(
+            type ->
+                Assertions.assertEquals(
+                    "notifications", activityOptions.get(type).getTaskQueue(), type));
+    Assertions.assertEquals(
+        activityTypes(IntegrationsHandlers.class).size()
+            + activityTypes(NotificationsHandlers.class).size(),
+        activityOptions.size());
+  }
+
+  @Test
+  public void customize_givenAsyncCrm_itShouldKeepTheRouteAndExtendRegistrationTimeouts() {
+    var activityOptions = customize("integrations", "notifications", true);
+
+    for (var type : List.of("CreateCrmEntity", "RegisterCrmEntity")) {
+      var options = activityOptions.get(type);
+      Assertions.assertEquals("integrations", options.getTaskQueue(), type);
+      Assertions.assertEquals(START_TO_CLOSE, options.getStartToCloseTimeout(), type);
+      Assertions.assertEquals(HEARTBEAT, options.getHeartbeatTimeout(), type);
+    }
+    // the existence check stays a quick read
+    Assertions.assertNull(activityOptions.get("CrmEntityExists").getStartToCloseTimeout());
+  }
+
+  @Test
+  public void customize_givenAsyncCrmWithoutTaskQueues_itShouldOnlyExtendRegistrationTimeouts() {
+    var activityOptions = customize("", "", true);
+
+    Assertions.assertEquals(
+        List.of("CreateCrmEntity", "RegisterCrmEntity"), sorted(activityOptions));
+    activityOptions.values().forEach(options -> Assertions.assertNull(options.getTaskQueue()));
+  }
+
+  @Test
+  public void customize_givenNoTaskQueuesOrAsyncCrm_itShouldAddNoOverrides() {
+    var customizer =
+        sut.workflowImplementationCustomizer("", "", false, START_TO_CLOSE, HEARTBEAT);
+    var builder = WorkflowImplementationOptions.newBuilder();
+
+    Assertions.assertSame(builder, customizer.customize(builder));
+    var activityOptions = builder.build().getActivityOptions();
+    Assertions.assertTrue(activityOptions == null || activityOptions.isEmpty());
+  }
+
+  private Map<String, ActivityOptions> customize(
+      String integrationsTaskQueue, String notificationsTaskQueue, boolean crmAsync) {
+    return sut.workflowImplementationCustomizer(
+            integrationsTaskQueue, notificationsTaskQueue, crmAsync, START_TO_CLOSE, HEARTBEAT)
+        .customize(WorkflowImplementationOptions.newBuilder())
+        .build()
+        .getActivityOptions();
+  }
+
+  private static List<String> activityTypes(Class<?> activityInterface) {
+    return POJOActivityInterfaceMetadata.newInstance(activityInterface)
+        .getMethodsMetadata()
+        .stream()
+        .map(POJOActivityMethodMetadata::getActivityTypeName)
+        .toList();
+  }
+
+  private static List<String> sorted(Map<String, ActivityOptions> activityOptions) {
+    return activityOptions.keySet().stream().sorted().toList();
+  }
+}
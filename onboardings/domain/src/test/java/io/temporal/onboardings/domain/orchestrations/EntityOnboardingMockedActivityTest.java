@@ -26,9 +26,18 @@ package io.temporal.onboardings.domain.orchestrations;
 
 import static org.mockito.Mockito.*;
 
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowFailedException;
 import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.client.WorkflowUpdateException;
+import io.temporal.common.SearchAttributeKey;
+import io.temporal.common.converter.DefaultDataConverter;
 import io.temporal.failure.ApplicationFailure;
 import io.temporal.onboardings.domain.DomainConfig;
 import io.temporal.onboardings.domain.integrations.IntegrationsHandlers;
@@ -36,13 +45,19 @@ import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.Errors;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntitySettings;
 import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
+import io.temporal.onboardings.domain.messages.values.Approval;
 import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
 import io.temporal.onboardings.domain.notifications.NotificationsHandlers;
 import io.temporal.testing.TestWorkflowEnvironment;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -64,6 +79,11 @@ import org.springframework.test.context.ActiveProfiles;
 @ActiveProfiles("test")
 @Import(DomainConfig.class)
 public class EntityOnboardingMockedActivityTest {
+  // a short digest window keeps the deputy-owner scenarios from sleeping through the default
+  static final int DIGEST_WINDOW_SECONDS = 5;
+  static final OnboardEntitySettings DIGEST_SETTINGS =
+      OnboardEntitySettings.DEFAULTS.withDeputyOwnerDigestWindowSeconds(DIGEST_WINDOW_SECONDS);
+
   @Autowired ConfigurableApplicationContext applicationContext;
 
   @Autowired TestWorkflowEnvironment testWorkflowEnvironment;
@@ -79,6 +99,8 @@ public class EntityOnboardingMockedActivityTest {
 
   @BeforeEach
   void beforeEach() {
+    EntityOnboardingSearchAttributes.ALL.forEach(
+        key -> testWorkflowEnvironment.registerSearchAttribute(key.getName(), key.getValueType()));
     applicationContext.start();
   }
 
@@ -115,13 +137,34 @@ public class EntityOnboardingMockedActivityTest {
     testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
 
     verify(integrationsHandlers, times(1))
-        .registerCrmEntity(
+        .createCrmEntity(
             argThat(
                 inputCall ->
                     Objects.equals(inputCall.id(), args.id())
                         && Objects.equals(inputCall.value(), args.value())));
     verify(notificationsHandlers, never()).requestDeputyOwnerApproval(any());
   }
+  // behavior verification
+  @Test
+  public void
+      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenEntityAlreadyExists_itShouldNotCreateTheEntity() {
+    String wfId = UUID.randomUUID().toString();
+    var args = new OnboardEntityRequest(wfId, UUID.randomUUID().toString(), 4, null, false);
+    when(integrationsHandlers.crmEntityExists(argThat(a -> Objects.equals(a.id(), args.id()))))
+        .thenReturn(true);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+    WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    sut.approve(new ApproveEntityRequest("nocomment"));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+
+    verify(integrationsHandlers, times(1)).crmEntityExists(any());
+    verify(integrationsHandlers, never()).createCrmEntity(any());
+  }
+
   // state verification
   @Test
   public void givenValidArgsWithOwnerApprovalNoDeputyOwner_whenRejected_itShouldBeRejected() {
@@ -157,6 +200,69 @@ public class EntityOnboardingMockedActivityTest {
     verify(notificationsHandlers, never()).requestDeputyOwnerApproval(any());
   }
 
+  // state verification
+  @Test
+  public void
+      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenApprovedByUpdate_itShouldReturnApprovedState() {
+    String wfId = UUID.randomUUID().toString();
+    var args = new OnboardEntityRequest(wfId, UUID.randomUUID().toString(), 4, null, false);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(wfId).setTaskQueue(taskQueue).build());
+    WorkflowClient.start(sut::execute, args);
+    EntityOnboardingState response = sut.approveEntity(new ApproveEntityRequest("nocomment"));
+    Assertions.assertEquals(ApprovalStatus.APPROVED, response.approval().approvalStatus());
+    Assertions.assertEquals("nocomment", response.approval().comment());
+  }
+
+  // state verification
+  @Test
+  public void
+      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenRejectedByUpdate_itShouldReturnRejectedState() {
+    String wfId = UUID.randomUUID().toString();
+    var args = new OnboardEntityRequest(wfId, UUID.randomUUID().toString(), 4, null, false);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(wfId).setTaskQueue(taskQueue).build());
+    WorkflowClient.start(sut::execute, args);
+    EntityOnboardingState response = sut.rejectEntity(new RejectEntityRequest("nocomment"));
+    Assertions.assertEquals(ApprovalStatus.REJECTED, response.approval().approvalStatus());
+    verifyNoInteractions(integrationsHandlers);
+  }
+
+  // state verification
+  @Test
+  public void
+      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenApprovedByUpdateTwice_itShouldRejectTheSecond() {
+    String wfId = UUID.randomUUID().toString();
+    var args = new OnboardEntityRequest(wfId, UUID.randomUUID().toString(), 4, null, false);
+    // keep the execution open (retrying registration) so later Updates reach the validator
+    doThrow(new RuntimeException("crm unavailable"))
+        .when(integrationsHandlers)
+        .createCrmEntity(any());
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(wfId).setTaskQueue(taskQueue).build());
+    WorkflowClient.start(sut::execute, args);
+    sut.approveEntity(new ApproveEntityRequest("first"));
+
+    var e =
+        Assertions.assertThrows(
+            WorkflowUpdateException.class,
+            () -> sut.rejectEntity(new RejectEntityRequest("second")));
+    Assertions.assertInstanceOf(ApplicationFailure.class, e.getCause());
+    Assertions.assertEquals(
+        Errors.APPROVAL_NOT_PENDING.name(), ((ApplicationFailure) e.getCause()).getType());
+    Assertions.assertThrows(
+        WorkflowUpdateException.class, () -> sut.approveEntity(new ApproveEntityRequest("third")));
+    var response = sut.getState();
+    Assertions.assertEquals(ApprovalStatus.APPROVED, response.approval().approvalStatus());
+    Assertions.assertEquals("first", response.approval().comment());
+  }
+
   @Test
   public void
       givenValidArgsWithOwnerApprovalAndDeputyOwnerWhenApprovalWindowTimesOut_itShouldAllowApprovalByDeputy() {
@@ -190,8 +296,11 @@ public class EntityOnboardingMockedActivityTest {
             UUID.randomUUID().toString(),
             UUID.randomUUID().toString(),
             completionTimeoutSeconds,
-            "deputydawg@example.com",
-            false);
+            UUID.randomUUID() + "@example.com",
+            false,
+            null,
+            null,
+            DIGEST_SETTINGS);
     EntityOnboarding sut =
         workflowClient.newWorkflowStub(
             EntityOnboarding.class,
@@ -200,19 +309,237 @@ public class EntityOnboardingMockedActivityTest {
     WorkflowClient.start(sut::execute, args);
     testWorkflowEnvironment.sleep(Duration.ofSeconds(completionTimeoutSeconds));
     sut.approve(new ApproveEntityRequest("nocomment"));
-    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(DIGEST_WINDOW_SECONDS));
     verify(notificationsHandlers, times(1))
-        .requestDeputyOwnerApproval(
+        .sendDeputyOwnerDigest(
             argThat(
                 a ->
-                    Objects.equals(a.id(), args.id())
+                    a.ids().contains(args.id())
                         && Objects.equals(a.deputyOwnerEmail(), args.deputyOwnerEmail())));
     verify(integrationsHandlers, times(1))
-        .registerCrmEntity(
+        .createCrmEntity(
             argThat(
                 a -> Objects.equals(a.id(), args.id()) && Objects.equals(a.value(), args.value())));
   }
 
+  // behavior verification
+  @Test
+  public void givenApprovalCarriedAcrossContinueAsNew_whenResumed_itShouldRegisterTheEntity() {
+    var args =
+        new OnboardEntityRequest(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            4,
+            null,
+            false,
+            new Approval(ApprovalStatus.APPROVED, "carried"),
+            2);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    sut.execute(args);
+
+    verify(integrationsHandlers, times(1))
+        .createCrmEntity(
+            argThat(
+                a -> Objects.equals(a.id(), args.id()) && Objects.equals(a.value(), args.value())));
+  }
+
+  // behavior verification
+  @Test
+  public void
+      givenRemainingApprovalTimeoutCarriedAcrossContinueAsNew_whenItElapses_itShouldRequestDeputyOwnerApproval() {
+    var args =
+        new OnboardEntityRequest(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            30,
+            UUID.randomUUID() + "@example.com",
+            false,
+            new Approval(ApprovalStatus.PENDING, null),
+            2,
+            DIGEST_SETTINGS);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(
+        Duration.ofSeconds(3 + DIGEST_WINDOW_SECONDS));
+
+    verify(notificationsHandlers, times(1))
+        .sendDeputyOwnerDigest(argThat(a -> a.ids().contains(args.id())));
+  }
+
+  // behavior verification
+  @Test
+  public void
+      givenEntitiesSharingADeputyOwnerWhenApprovalWindowsTimeOut_itShouldSendTheDeputyOneDigest() {
+    var deputyOwnerEmail = UUID.randomUUID() + "@example.com";
+    var ids = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+    for (var id : ids) {
+      var args =
+          new OnboardEntityRequest(
+              id,
+              UUID.randomUUID().toString(),
+              30,
+              deputyOwnerEmail,
+              false,
+              null,
+              null,
+              DIGEST_SETTINGS);
+      EntityOnboarding sut =
+          workflowClient.newWorkflowStub(
+              EntityOnboarding.class,
+              WorkflowOptions.newBuilder().setWorkflowId(id).setTaskQueue(taskQueue).build());
+      WorkflowClient.start(sut::execute, args);
+    }
+
+    testWorkflowEnvironment.sleep(
+        Duration.ofSeconds(20 + DIGEST_WINDOW_SECONDS));
+
+    verify(notificationsHandlers, never()).requestDeputyOwnerApproval(any());
+    verify(notificationsHandlers, times(1))
+        .sendDeputyOwnerDigest(
+            argThat(
+                a ->
+                    Objects.equals(a.deputyOwnerEmail(), deputyOwnerEmail)
+                        && a.ids().containsAll(ids)));
+  }
+
+  // behavior verification
+  @Test
+  public void givenDeputyOwnerDigestFailsToSend_itShouldRetryTheRequestsNextWindow() {
+    var args =
+        new OnboardEntityRequest(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            30,
+            UUID.randomUUID() + "@example.com",
+            false,
+            null,
+            null,
+            DIGEST_SETTINGS);
+    doThrow(ApplicationFailure.newNonRetryableFailure("smtp down", "SmtpFailure"))
+        .doNothing()
+        .when(notificationsHandlers)
+        .sendDeputyOwnerDigest(argThat(a -> a.ids().contains(args.id())));
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(20 + 3 * DIGEST_WINDOW_SECONDS));
+
+    verify(notificationsHandlers, times(2))
+        .sendDeputyOwnerDigest(argThat(a -> a.ids().contains(args.id())));
+  }
+
+  // state verification
+  @Test
+  public void
+      givenSignalsGrowHistoryPastThreshold_whenPending_itShouldContinueAsNewKeepingRemainingTime() {
+    var historyLimit = 20;
+    var args =
+        new OnboardEntityRequest(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            30,
+            null,
+            false,
+            null,
+            null,
+            OnboardEntitySettings.DEFAULTS.withMaxHistory(historyLimit, Long.MAX_VALUE));
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    var firstRun = WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(10));
+    // signals without a handler are still written to history but leave the approval pending
+    var untyped = WorkflowStub.fromTyped(sut);
+    IntStream.range(0, historyLimit).forEach(i -> untyped.signal("noise", i));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+
+    var continuedAsNew =
+        workflowClient.fetchHistory(args.id(), firstRun.getRunId()).getEvents().stream()
+            .filter(HistoryEvent::hasWorkflowExecutionContinuedAsNewEventAttributes)
+            .findFirst()
+            .orElseThrow()
+            .getWorkflowExecutionContinuedAsNewEventAttributes();
+    var canArgs =
+        workflowClient
+            .getOptions()
+            .getDataConverter()
+            .fromPayloads(
+                0,
+                Optional.of(continuedAsNew.getInput()),
+                OnboardEntityRequest.class,
+                OnboardEntityRequest.class);
+    Assertions.assertEquals(ApprovalStatus.PENDING, canArgs.approval().approvalStatus());
+    Assertions.assertTrue(
+        canArgs.approvalTimeoutSeconds() >= 19 && canArgs.approvalTimeoutSeconds() <= 20,
+        "remaining approval time was " + canArgs.approvalTimeoutSeconds());
+    Assertions.assertEquals(args.settings(), canArgs.settings());
+    Assertions.assertEquals(ApprovalStatus.PENDING, sut.getState().approval().approvalStatus());
+  }
+
+  // state verification
+  @Test
+  public void givenDeputyOwner_whenApprovalHandedToDeputy_itShouldKeepIndexingTheDeputyOwner() {
+    var args =
+        new OnboardEntityRequest(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            30,
+            UUID.randomUUID() + "@example.com",
+            false,
+            null,
+            null,
+            DIGEST_SETTINGS);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    var firstRun = WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    assertSearchAttributes(args.id(), ApprovalStatus.PENDING, true);
+
+    // the owner's half of the window elapses and the onboarding continues as new for the deputy
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(15));
+    Assertions.assertNotEquals(firstRun.getRunId(), describe(args.id()).getExecution().getRunId());
+    assertSearchAttributes(args.id(), ApprovalStatus.PENDING, true);
+
+    sut.approve(new ApproveEntityRequest("from the deputy"));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    assertSearchAttributes(args.id(), ApprovalStatus.APPROVED, true);
+  }
+
+  // state verification
+  @Test
+  public void givenNoDeputyOwner_whenApproved_itShouldIndexTheApproval() {
+    String wfId = UUID.randomUUID().toString();
+    var args = new OnboardEntityRequest(wfId, UUID.randomUUID().toString(), 4, null, false);
+    EntityOnboarding sut =
+        workflowClient.newWorkflowStub(
+            EntityOnboarding.class,
+            WorkflowOptions.newBuilder().setWorkflowId(wfId).setTaskQueue(taskQueue).build());
+
+    WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    assertSearchAttributes(wfId, ApprovalStatus.PENDING, false);
+
+    sut.approve(new ApproveEntityRequest("nocomment"));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    assertSearchAttributes(wfId, ApprovalStatus.APPROVED, false);
+  }
+
   // state verification
   @Test
   public void execute_givenInvalidArgs_itShouldFailWorkflow() {
@@ -234,6 +561,43 @@ public class EntityOnboardingMockedActivityTest {
         Errors.INVALID_ARGS.name(), ((ApplicationFailure) e.getCause()).getType());
   }
 
+  private void assertSearchAttributes(
+      String workflowId, ApprovalStatus approvalStatus, boolean hasDeputyOwner) {
+    var searchAttributes = describe(workflowId).getSearchAttributes().getIndexedFieldsMap();
+    Assertions.assertEquals(
+        approvalStatus.name(),
+        searchAttribute(
+            searchAttributes, EntityOnboardingSearchAttributes.APPROVAL_STATUS, String.class));
+    Assertions.assertEquals(
+        workflowId,
+        searchAttribute(
+            searchAttributes, EntityOnboardingSearchAttributes.ENTITY_ID, String.class));
+    Assertions.assertEquals(
+        hasDeputyOwner,
+        searchAttribute(
+            searchAttributes, EntityOnboardingSearchAttributes.HAS_DEPUTY_OWNER, Boolean.class));
+  }
+
+  // the latest run of `workflowId`
+  private WorkflowExecutionInfo describe(String workflowId) {
+    return workflowClient
+        .getWorkflowServiceStubs()
+        .blockingStub()
+        .describeWorkflowExecution(
+            DescribeWorkflowExecutionRequest.newBuilder()
+                .setNamespace(workflowClient.getOptions().getNamespace())
+                .setExecution(WorkflowExecution.newBuilder().setWorkflowId(workflowId))
+                .build())
+        .getWorkflowExecutionInfo();
+  }
+
+  private static <T> T searchAttribute(
+      Map<String, Payload> searchAttributes, SearchAttributeKey<T> key, Class<T> type) {
+    var payload = searchAttributes.get(key.getName());
+    Assertions.assertNotNull(payload, key.getName() + " was not upserted");
+    return DefaultDataConverter.STANDARD_INSTANCE.fromPayload(payload, type, type);
+  }
+
   @ComponentScan
   public static class Configuration {
     @MockBean private NotificationsHandlers notificationsHandlersMock;
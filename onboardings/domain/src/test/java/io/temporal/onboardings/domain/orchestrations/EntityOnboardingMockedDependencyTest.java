@@ -38,6 +38,7 @@ import io.temporal.onboardings.domain.messages.commands.ApproveEntityRequest;
 import io.temporal.onboardings.domain.messages.commands.RejectEntityRequest;
 import io.temporal.onboardings.domain.messages.orchestrations.Errors;
 import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntityRequest;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardEntitySettings;
 import io.temporal.onboardings.domain.messages.queries.EntityOnboardingState;
 import io.temporal.onboardings.domain.messages.values.ApprovalStatus;
 import io.temporal.testing.TestWorkflowEnvironment;
@@ -71,6 +72,11 @@ import org.springframework.web.client.HttpClientErrorException;
 @ActiveProfiles("test")
 @Import(DomainConfig.class)
 public class EntityOnboardingMockedDependencyTest {
+  // a short digest window keeps the deputy-owner scenarios from sleeping through the default
+  static final int DIGEST_WINDOW_SECONDS = 5;
+  static final OnboardEntitySettings DIGEST_SETTINGS =
+      OnboardEntitySettings.DEFAULTS.withDeputyOwnerDigestWindowSeconds(DIGEST_WINDOW_SECONDS);
+
   @Autowired ConfigurableApplicationContext applicationContext;
 
   @Autowired TestWorkflowEnvironment testWorkflowEnvironment;
@@ -86,6 +92,8 @@ public class EntityOnboardingMockedDependencyTest {
 
   @BeforeEach
   void beforeEach() {
+    EntityOnboardingSearchAttributes.ALL.forEach(
+        key -> testWorkflowEnvironment.registerSearchAttribute(key.getName(), key.getValueType()));
     applicationContext.start();
   }
 
@@ -109,7 +117,8 @@ public class EntityOnboardingMockedDependencyTest {
   // behavior verification
   @Test
   public void
-      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenApproved_itShouldRegisterTheEntity() {
+      givenValidArgsWithOwnerApprovalNoDeputyOwner_whenApproved_itShouldRegisterTheEntity()
+          throws ConnectException {
 
     var args =
         new OnboardEntityRequest(
@@ -199,15 +208,19 @@ public class EntityOnboardingMockedDependencyTest {
 
   @Test
   public void
-      givenValidArgsWithOwnerApprovalAndDeputyOwnerWhenApprovalWindowTimesOut_shouldRequestDeputyOwnerApproval() {
+      givenValidArgsWithOwnerApprovalAndDeputyOwnerWhenApprovalWindowTimesOut_shouldRequestDeputyOwnerApproval()
+          throws ConnectException {
     int completionTimeoutSeconds = 30;
     var args =
         new OnboardEntityRequest(
             UUID.randomUUID().toString(),
             UUID.randomUUID().toString(),
             completionTimeoutSeconds,
-            "deputydawg@example.com",
-            false);
+            UUID.randomUUID() + "@example.com",
+            false,
+            null,
+            null,
+            DIGEST_SETTINGS);
     when(crmClient.getCustomerById(args.id()))
         .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
     EntityOnboarding sut =
@@ -218,12 +231,12 @@ public class EntityOnboardingMockedDependencyTest {
     WorkflowClient.start(sut::execute, args);
     testWorkflowEnvironment.sleep(Duration.ofSeconds(completionTimeoutSeconds));
     sut.approve(new ApproveEntityRequest("nocomment"));
-    testWorkflowEnvironment.sleep(Duration.ofSeconds(1));
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(DIGEST_WINDOW_SECONDS));
     try {
       verify(crmClient, times(1)).registerCustomer(eq(args.id()), eq(args.value()));
     } catch (ConnectException ignored) {
     }
-    verify(emailClient, times(1)).sendEmail(eq(args.deputyOwnerEmail()), any());
+    verify(emailClient, times(1)).sendEmail(eq(args.deputyOwnerEmail()), contains(args.id()));
   }
 
   // state verification
@@ -249,7 +262,7 @@ public class EntityOnboardingMockedDependencyTest {
 
   // behavior verification
   @Test
-  public void execute_givenErmClientOutage_itShouldFailWorkflow2() {
+  public void execute_givenErmClientOutage_itShouldFailWorkflow2() throws ConnectException {
 
     var args =
         new OnboardEntityRequest(
@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.domain.orchestrations;
+
+import static org.mockito.Mockito.*;
+
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.onboardings.domain.DomainConfig;
+import io.temporal.onboardings.domain.integrations.IntegrationsHandlers;
+import io.temporal.onboardings.domain.messages.orchestrations.OnboardBatchRequest;
+import io.temporal.onboardings.domain.messages.values.OnboardBatchProgress;
+import io.temporal.testing.TestWorkflowEnvironment;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.*;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(
+    classes = {
+      OnboardingBatchMockedActivityTest.Configuration.class,
+    })
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+@EnableAutoConfiguration()
+@DirtiesContext
+@ActiveProfiles("test")
+@Import(DomainConfig.class)
+public class OnboardingBatchMockedActivityTest {
+  @Autowired ConfigurableApplicationContext applicationContext;
+
+  @Autowired TestWorkflowEnvironment testWorkflowEnvironment;
+
+  @Autowired WorkflowClient workflowClient;
+
+  @MockBean IntegrationsHandlers integrationsHandlers;
+
+  @Value("${spring.temporal.workers[0].task-queue}")
+  String taskQueue;
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void beforeEach() {
+    EntityOnboardingSearchAttributes.ALL.forEach(
+        key -> testWorkflowEnvironment.registerSearchAttribute(key.getName(), key.getValueType()));
+    applicationContext.start();
+  }
+
+  // state verification
+  @Test
+  public void givenSourceLargerThanWindow_whenExecuted_itShouldOnboardEveryEntity()
+      throws IOException {
+    var source = writeSource(7);
+    var args =
+        new OnboardBatchRequest(UUID.randomUUID().toString(), source, 2, 3, 4, true, 0, null);
+    OnboardingBatch sut =
+        workflowClient.newWorkflowStub(
+            OnboardingBatch.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    var progress = sut.execute(args);
+
+    Assertions.assertEquals(new OnboardBatchProgress(7, 7, 0, 0, 0), progress);
+  }
+
+  // behavior verification
+  @Test
+  public void givenSourceLargerThanWindow_whenExecuted_itShouldRegisterEachEntityOnce()
+      throws IOException {
+    var source = writeSource(5);
+    var args =
+        new OnboardBatchRequest(UUID.randomUUID().toString(), source, 2, 2, 4, true, 0, null);
+    OnboardingBatch sut =
+        workflowClient.newWorkflowStub(
+            OnboardingBatch.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    sut.execute(args);
+
+    verify(integrationsHandlers, times(5)).createCrmEntity(any());
+  }
+
+  // state verification
+  @Test
+  public void givenMalformedLine_whenExecuted_itShouldCountItAsMalformed() throws IOException {
+    var source = tempDir.resolve("batch.ndjson");
+    Files.writeString(
+        source,
+        String.format("{\"id\":\"%s\",\"value\":\"v\"}\nnot-json\n", UUID.randomUUID()));
+    var args =
+        new OnboardBatchRequest(
+            UUID.randomUUID().toString(), source.toString(), 2, 10, 4, true, 0, null);
+    OnboardingBatch sut =
+        workflowClient.newWorkflowStub(
+            OnboardingBatch.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    var progress = sut.execute(args);
+
+    Assertions.assertEquals(new OnboardBatchProgress(1, 1, 0, 0, 1), progress);
+  }
+
+  // state verification
+  @Test
+  public void givenDuplicateIds_whenExecuted_itShouldCountTheRejectedChildAsAlreadyStarted()
+      throws IOException {
+    var source = tempDir.resolve("batch.ndjson");
+    var entityId = UUID.randomUUID().toString();
+    Files.writeString(
+        source,
+        String.format("{\"id\":\"%s\",\"value\":\"v\"}\n", entityId).repeat(2));
+    var args =
+        new OnboardBatchRequest(
+            UUID.randomUUID().toString(), source.toString(), 2, 10, 4, true, 0, null);
+    OnboardingBatch sut =
+        workflowClient.newWorkflowStub(
+            OnboardingBatch.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    var progress = sut.execute(args);
+
+    Assertions.assertEquals(new OnboardBatchProgress(2, 1, 0, 1, 0), progress);
+    verify(integrationsHandlers, times(1)).createCrmEntity(any());
+  }
+
+  // state verification
+  @Test
+  public void givenApprovalNotSkipped_whenChildrenWait_itShouldHoldTheirWindowSlots()
+      throws IOException {
+    var source = writeSource(3);
+    var args =
+        new OnboardBatchRequest(UUID.randomUUID().toString(), source, 2, 10, 60, false, 0, null);
+    OnboardingBatch sut =
+        workflowClient.newWorkflowStub(
+            OnboardingBatch.class,
+            WorkflowOptions.newBuilder().setWorkflowId(args.id()).setTaskQueue(taskQueue).build());
+
+    WorkflowClient.start(sut::execute, args);
+    testWorkflowEnvironment.sleep(Duration.ofSeconds(5));
+
+    var state = sut.getState();
+    Assertions.assertEquals(2, state.inFlight());
+    Assertions.assertEquals(new OnboardBatchProgress(2, 0, 0, 0, 0), state.progress());
+    verify(integrationsHandlers, never()).createCrmEntity(any());
+  }
+
+  private String writeSource(int count) throws IOException {
+    var source = tempDir.resolve("batch.ndjson");
+    Files.writeString(
+        source,
+        IntStream.range(0, count)
+            .mapToObj(
+                i -> String.format("{\"id\":\"%s\",\"value\":\"value-%d\"}", UUID.randomUUID(), i))
+            .collect(Collectors.joining("\n", "", "\n")));
+    return source.toString();
+  }
+
+  @ComponentScan
+  public static class Configuration {}
+}
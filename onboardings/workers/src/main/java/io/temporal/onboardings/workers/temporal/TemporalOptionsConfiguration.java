@@ -24,23 +24,37 @@
 
 package io.temporal.onboardings.workers.temporal;
 
+import io.temporal.onboardings.workers.temporal.tuners.TunerProperties;
+import io.temporal.onboardings.workers.temporal.tuners.WorkerTuners;
 import io.temporal.spring.boot.WorkerOptionsCustomizer;
 import io.temporal.worker.WorkerOptions;
-import io.temporal.worker.tuning.*;
+import java.util.List;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @ComponentScan
+@EnableConfigurationProperties(TunerProperties.class)
 public class TemporalOptionsConfiguration {
   Logger logger = LoggerFactory.getLogger(TemporalOptionsConfiguration.class);
 
+  // Each Task Queue is tuned by its profile under `spring.curriculum.tuners` (see
+  // `WorkerTuners`); a tuner cannot be combined with `capacity` executor sizes for that queue.
+  // Task Queues listed in `virtual-threads.task-queues` run their pollers and task executors on
+  // virtual threads (requires a Java 21+ runtime), so blocking Activities are bounded by their
+  // slots rather than by platform threads. This does not move Workflow code, which runs on the
+  // `WorkerFactory`'s workflow threads.
   @Bean
-  public WorkerOptionsCustomizer workerCustomizer() {
+  public WorkerOptionsCustomizer workerCustomizer(
+      WorkerTuners workerTuners,
+      @Value("${spring.curriculum.virtual-threads.task-queues:}")
+          List<String> virtualThreadTaskQueues) {
     return new WorkerOptionsCustomizer() {
       @Nonnull
       @Override
@@ -48,11 +62,11 @@ public class TemporalOptionsConfiguration {
           @Nonnull WorkerOptions.Builder optionsBuilder,
           @Nonnull String workerName,
           @Nonnull String taskQueue) {
-        logger.info("Adding ResourceBasedTuner to WorkerOptions");
-        optionsBuilder.setWorkerTuner(
-            ResourceBasedTuner.newBuilder()
-                .setControllerOptions(ResourceBasedControllerOptions.newBuilder(0.75, 0.75).build())
-                .build());
+        if (virtualThreadTaskQueues.contains(taskQueue)) {
+          logger.info("Running {} tasks on virtual threads", taskQueue);
+          optionsBuilder.setUsingVirtualThreads(true);
+        }
+        workerTuners.tunerFor(taskQueue).ifPresent(optionsBuilder::setWorkerTuner);
         return optionsBuilder;
       }
     };
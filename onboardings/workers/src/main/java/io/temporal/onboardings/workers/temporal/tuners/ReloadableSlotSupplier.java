@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import io.temporal.worker.tuning.SlotInfo;
+import io.temporal.worker.tuning.SlotMarkUsedContext;
+import io.temporal.worker.tuning.SlotPermit;
+import io.temporal.worker.tuning.SlotReleaseContext;
+import io.temporal.worker.tuning.SlotReserveContext;
+import io.temporal.worker.tuning.SlotSupplier;
+import io.temporal.worker.tuning.SlotSupplierFuture;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Delegates to a `SlotSupplier` that can be swapped while the Worker runs.
+// New reservations go to the current delegate; each permit is released to the delegate that
+// issued it, so slots held across a swap are returned to the right supplier.
+// While permits of replaced delegates are still out, the current delegate only gets as many
+// reservations as keep the total under its maximum; the rest wait for those permits to come
+// back, so a swap never lets the Worker hold both quotas at once.
+// Also counts reserved and used slots for the tuner gauges.
+class ReloadableSlotSupplier<SI extends SlotInfo> implements SlotSupplier<SI> {
+  private volatile SlotSupplier<SI> delegate;
+  private final ConcurrentHashMap<SlotPermit, Issued<SI>> issued = new ConcurrentHashMap<>();
+  // guarded by `this`: reservations waiting for room, and those let through to a delegate
+  // that have not been issued yet
+  private final ArrayDeque<Reservation> waiting = new ArrayDeque<>();
+  private int admitted;
+
+  ReloadableSlotSupplier(SlotSupplier<SI> delegate) {
+    this.delegate = delegate;
+  }
+
+  void reload(SlotSupplier<SI> delegate) {
+    this.delegate = delegate;
+    // a bigger profile may have room for reservations that were waiting
+    admitWaiting();
+  }
+
+  int reservedSlots() {
+    return issued.size();
+  }
+
+  int usedSlots() {
+    return (int) issued.values().stream().filter(Issued::used).count();
+  }
+
+  @Override
+  public SlotSupplierFuture reserveSlot(SlotReserveContext<SI> ctx) {
+    var reservation = new Reservation(ctx);
+    synchronized (this) {
+      if (!hasRoom()) {
+        waiting.add(reservation);
+        return reservation;
+      }
+      admitted++;
+    }
+    reservation.start();
+    return reservation;
+  }
+
+  @Override
+  public Optional<SlotPermit> tryReserveSlot(SlotReserveContext<SI> ctx) {
+    synchronized (this) {
+      if (!hasRoom()) {
+        return Optional.empty();
+      }
+      admitted++;
+    }
+    var supplier = delegate;
+    try {
+      var permit = supplier.tryReserveSlot(ctx);
+      permit.ifPresent(p -> issued.put(p, new Issued<>(supplier, false)));
+      return permit;
+    } finally {
+      synchronized (this) {
+        admitted--;
+      }
+    }
+  }
+
+  @Override
+  public void markSlotUsed(SlotMarkUsedContext<SI> ctx) {
+    var issuer = issued.computeIfPresent(ctx.getSlotPermit(), (p, i) -> new Issued<>(i.by(), true));
+    (issuer == null ? delegate : issuer.by()).markSlotUsed(ctx);
+  }
+
+  @Override
+  public void releaseSlot(SlotReleaseContext<SI> ctx) {
+    var issuer = issued.remove(ctx.getSlotPermit());
+    (issuer == null ? delegate : issuer.by()).releaseSlot(ctx);
+    admitWaiting();
+  }
+
+  @Override
+  public Optional<Integer> getMaximumSlots() {
+    return delegate.getMaximumSlots();
+  }
+
+  // Only limits anything while replaced delegates still hold permits; otherwise the current
+  // delegate enforces its own quota.
+  private boolean hasRoom() {
+    var current = delegate;
+    var max = current.getMaximumSlots();
+    if (max.isEmpty() || issued.values().stream().allMatch(i -> i.by() == current)) {
+      return true;
+    }
+    return issued.size() + admitted < max.get();
+  }
+
+  private void admitWaiting() {
+    while (true) {
+      Reservation next;
+      synchronized (this) {
+        if (waiting.isEmpty() || !hasRoom()) {
+          return;
+        }
+        next = waiting.poll();
+        admitted++;
+      }
+      next.start();
+    }
+  }
+
+  // Completes only once its permit is recorded in `issued`, so a release can never get there
+  // before the permit does.
+  private class Reservation extends SlotSupplierFuture {
+    private final SlotReserveContext<SI> ctx;
+    private volatile SlotSupplierFuture inner;
+
+    Reservation(SlotReserveContext<SI> ctx) {
+      this.ctx = ctx;
+    }
+
+    void start() {
+      var supplier = delegate;
+      SlotSupplierFuture future;
+      try {
+        future = supplier.reserveSlot(ctx);
+      } catch (Exception e) {
+        settle();
+        completeExceptionally(e);
+        return;
+      }
+      inner = future;
+      future.whenComplete(
+          (permit, failure) -> {
+            if (failure == null) {
+              issued.put(permit, new Issued<>(supplier, false));
+            }
+            settle();
+            if (failure == null) {
+              complete(permit);
+            } else {
+              completeExceptionally(failure);
+            }
+          });
+    }
+
+    private void settle() {
+      synchronized (ReloadableSlotSupplier.this) {
+        admitted--;
+      }
+      admitWaiting();
+    }
+
+    @Override
+    public SlotPermit abortReservation() {
+      synchronized (ReloadableSlotSupplier.this) {
+        if (waiting.remove(this)) {
+          completeExceptionally(new CancellationException("Slot reservation aborted"));
+          return null;
+        }
+      }
+      var future = inner;
+      return future == null ? null : future.abortReservation();
+    }
+  }
+
+  private record Issued<SI extends SlotInfo>(SlotSupplier<SI> by, boolean used) {}
+}
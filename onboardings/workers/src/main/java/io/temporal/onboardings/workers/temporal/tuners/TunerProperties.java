@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Named Worker tuner profiles and the Task Queue each one applies to, e.g.
+//   spring.curriculum.tuners.task-queues.onboardings: resource-based
+//   spring.curriculum.tuners.profiles.resource-based.type: resource-based
+// A `fixed` profile gives every slot type `slots` slots. A `resource-based` profile sizes every
+// slot type against the memory and CPU targets. A `composite` profile picks each slot type's
+// supplier separately under `workflow`, `activity` and `local-activity`.
+// Task Queues without a profile keep the SDK's default slot counts (or their `capacity`).
+@ConfigurationProperties(prefix = "spring.curriculum.tuners")
+public record TunerProperties(Map<String, String> taskQueues, Map<String, Profile> profiles) {
+  public TunerProperties {
+    taskQueues = Objects.requireNonNullElse(taskQueues, Map.of());
+    profiles = Objects.requireNonNullElse(profiles, Map.of());
+  }
+
+  public enum Type {
+    FIXED,
+    RESOURCE_BASED,
+    COMPOSITE,
+  }
+
+  public record Profile(
+      Type type,
+      Double targetMemoryUsage,
+      Double targetCpuUsage,
+      Integer slots,
+      Slots workflow,
+      Slots activity,
+      Slots localActivity) {
+    public Profile {
+      type = Objects.requireNonNullElse(type, Type.RESOURCE_BASED);
+      targetMemoryUsage = Objects.requireNonNullElse(targetMemoryUsage, 0.75);
+      targetCpuUsage = Objects.requireNonNullElse(targetCpuUsage, 0.75);
+      slots = Objects.requireNonNullElse(slots, 200);
+    }
+
+    // what a slot type gets under this profile; only `composite` profiles read `configured`
+    Slots slotsFor(Slots configured) {
+      return switch (type) {
+        case FIXED -> new Slots(Type.FIXED, slots, null, null, null);
+        case RESOURCE_BASED -> Slots.RESOURCE_BASED_DEFAULTS;
+        case COMPOSITE -> Objects.requireNonNullElse(configured, Slots.RESOURCE_BASED_DEFAULTS);
+      };
+    }
+  }
+
+  // `type` is `fixed` or `resource-based` here
+  public record Slots(
+      Type type,
+      Integer slots,
+      Integer minimumSlots,
+      Integer maximumSlots,
+      Duration rampThrottle) {
+    static final Slots RESOURCE_BASED_DEFAULTS =
+        new Slots(Type.RESOURCE_BASED, null, null, null, null);
+
+    public Slots {
+      type = Objects.requireNonNullElse(type, Type.RESOURCE_BASED);
+      if (type == Type.COMPOSITE) {
+        throw new IllegalArgumentException("Slot suppliers must be `fixed` or `resource-based`");
+      }
+      slots = Objects.requireNonNullElse(slots, 200);
+      minimumSlots = Objects.requireNonNullElse(minimumSlots, 5);
+      maximumSlots = Objects.requireNonNullElse(maximumSlots, 500);
+      rampThrottle = Objects.requireNonNullElse(rampThrottle, Duration.ofMillis(50));
+    }
+  }
+}
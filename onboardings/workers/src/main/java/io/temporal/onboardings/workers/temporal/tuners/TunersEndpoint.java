@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// `tuners` actuator endpoint (JMX, since Workers run without a web server):
+// `profiles` lists each tuned Task Queue's active profile, and `reload(taskQueue, profile)`
+// switches a Task Queue to another configured profile without restarting the Worker.
+@Component
+@Endpoint(id = "tuners")
+public class TunersEndpoint {
+  private final WorkerTuners workerTuners;
+
+  public TunersEndpoint(WorkerTuners workerTuners) {
+    this.workerTuners = workerTuners;
+  }
+
+  @ReadOperation
+  public Map<String, String> profiles() {
+    return workerTuners.profiles();
+  }
+
+  @WriteOperation
+  public Map<String, String> reload(@Selector String taskQueue, String profile) {
+    workerTuners.reload(taskQueue, profile);
+    return workerTuners.profiles();
+  }
+}
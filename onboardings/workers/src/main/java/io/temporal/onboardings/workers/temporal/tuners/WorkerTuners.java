@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.worker.tuning.ActivitySlotInfo;
+import io.temporal.worker.tuning.CompositeTuner;
+import io.temporal.worker.tuning.FixedSizeSlotSupplier;
+import io.temporal.worker.tuning.LocalActivitySlotInfo;
+import io.temporal.worker.tuning.NexusSlotInfo;
+import io.temporal.worker.tuning.ResourceBasedController;
+import io.temporal.worker.tuning.ResourceBasedControllerOptions;
+import io.temporal.worker.tuning.ResourceBasedSlotOptions;
+import io.temporal.worker.tuning.ResourceBasedSlotSupplier;
+import io.temporal.worker.tuning.SlotInfo;
+import io.temporal.worker.tuning.SlotSupplier;
+import io.temporal.worker.tuning.WorkerTuner;
+import io.temporal.worker.tuning.WorkflowSlotInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Builds the `WorkerTuner` for each Task Queue from its `TunerProperties` profile and lets the
+// profile be swapped while the Worker runs (see `TunersEndpoint`).
+// Each tuner's slot suppliers are `ReloadableSlotSupplier`s, so a reload only replaces their
+// delegates. Resource-based controllers are shared per profile, as the SDK recommends.
+// Publishes `curriculum.tuner.slots{task_queue, profile, slot_type, state=reserved|used}`.
+@Component
+public class WorkerTuners {
+  Logger logger = LoggerFactory.getLogger(WorkerTuners.class);
+
+  private final TunerProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, ResourceBasedController> controllers = new ConcurrentHashMap<>();
+  private final Map<String, Tuned> tuned = new ConcurrentHashMap<>();
+
+  public WorkerTuners(TunerProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  // empty when the Task Queue has no profile
+  public synchronized Optional<WorkerTuner> tunerFor(String taskQueue) {
+    var profileName = properties.taskQueues().get(taskQueue);
+    if (profileName == null) {
+      return Optional.empty();
+    }
+    var profile = profile(profileName);
+    var t =
+        tuned.computeIfAbsent(
+            taskQueue,
+            q ->
+                new Tuned(
+                    new ReloadableSlotSupplier<>(workflowSlots(profileName, profile)),
+                    new ReloadableSlotSupplier<>(activitySlots(profileName, profile)),
+                    new ReloadableSlotSupplier<>(localActivitySlots(profileName, profile))));
+    t.profile = profileName;
+    registerGauges(taskQueue, t);
+    logger.info("Tuning Task Queue {} with profile {}", taskQueue, profileName);
+    // Nexus is not used by these Workers
+    var nexus = new FixedSizeSlotSupplier<NexusSlotInfo>(100);
+    return Optional.of(new CompositeTuner(t.workflow, t.activity, t.localActivity, nexus));
+  }
+
+  // Task Queue -> active profile, for the Task Queues tuned by this Worker
+  public Map<String, String> profiles() {
+    var result = new TreeMap<String, String>();
+    tuned.forEach((queue, t) -> result.put(queue, t.profile));
+    return result;
+  }
+
+  public synchronized void reload(String taskQueue, String profileName) {
+    var t = tuned.get(taskQueue);
+    if (t == null) {
+      throw new IllegalArgumentException("Task Queue " + taskQueue + " is not tuned by a profile");
+    }
+    var profile = profile(profileName);
+    t.workflow.reload(workflowSlots(profileName, profile));
+    t.activity.reload(activitySlots(profileName, profile));
+    t.localActivity.reload(localActivitySlots(profileName, profile));
+    t.profile = profileName;
+    registerGauges(taskQueue, t);
+    logger.info("Reloaded Task Queue {} with profile {}", taskQueue, profileName);
+  }
+
+  private TunerProperties.Profile profile(String name) {
+    var profile = properties.profiles().get(name);
+    if (profile == null) {
+      throw new IllegalArgumentException("Unknown tuner profile " + name);
+    }
+    return profile;
+  }
+
+  private SlotSupplier<WorkflowSlotInfo> workflowSlots(
+      String name, TunerProperties.Profile profile) {
+    return slots(
+        name,
+        profile,
+        profile.slotsFor(profile.workflow()),
+        ResourceBasedSlotSupplier::createForWorkflow);
+  }
+
+  private SlotSupplier<ActivitySlotInfo> activitySlots(
+      String name, TunerProperties.Profile profile) {
+    return slots(
+        name,
+        profile,
+        profile.slotsFor(profile.activity()),
+        ResourceBasedSlotSupplier::createForActivity);
+  }
+
+  private SlotSupplier<LocalActivitySlotInfo> localActivitySlots(
+      String name, TunerProperties.Profile profile) {
+    return slots(
+        name,
+        profile,
+        profile.slotsFor(profile.localActivity()),
+        ResourceBasedSlotSupplier::createForLocalActivity);
+  }
+
+  private <SI extends SlotInfo> SlotSupplier<SI> slots(
+      String name,
+      TunerProperties.Profile profile,
+      TunerProperties.Slots slots,
+      BiFunction<ResourceBasedController, ResourceBasedSlotOptions, ? extends SlotSupplier<SI>>
+          resourceBased) {
+    if (slots.type() == TunerProperties.Type.FIXED) {
+      return new FixedSizeSlotSupplier<>(slots.slots());
+    }
+    var controller =
+        controllers.computeIfAbsent(
+            name,
+            n ->
+                ResourceBasedController.newSystemInfoController(
+                    ResourceBasedControllerOptions.newBuilder(
+                            profile.targetMemoryUsage(), profile.targetCpuUsage())
+                        .build()));
+    return resourceBased.apply(
+        controller,
+        ResourceBasedSlotOptions.newBuilder()
+            .setMinimumSlots(slots.minimumSlots())
+            .setMaximumSlots(slots.maximumSlots())
+            .setRampThrottle(slots.rampThrottle())
+            .build());
+  }
+
+  private void registerGauges(String taskQueue, Tuned t) {
+    t.meters.forEach(meterRegistry::remove);
+    t.meters.clear();
+    register(t, taskQueue, "workflow", t.workflow);
+    register(t, taskQueue, "activity", t.activity);
+    register(t, taskQueue, "local_activity", t.localActivity);
+  }
+
+  private void register(
+      Tuned t, String taskQueue, String slotType, ReloadableSlotSupplier<?> supplier) {
+    for (var state : List.of("reserved", "used")) {
+      t.meters.add(
+          Gauge.builder(
+                  "curriculum.tuner.slots",
+                  supplier,
+                  s -> state.equals("used") ? s.usedSlots() : s.reservedSlots())
+              .tag("task_queue", taskQueue)
+              .tag("profile", t.profile)
+              .tag("slot_type", slotType)
+              .tag("state", state)
+              .description("Worker slots held under the Task Queue's tuner profile")
+              .register(meterRegistry));
+    }
+  }
+
+  private static class Tuned {
+    final ReloadableSlotSupplier<WorkflowSlotInfo> workflow;
+    final ReloadableSlotSupplier<ActivitySlotInfo> activity;
+    final ReloadableSlotSupplier<LocalActivitySlotInfo> localActivity;
+    final List<Meter> meters = new ArrayList<>();
+    volatile String profile;
+
+    Tuned(
+        ReloadableSlotSupplier<WorkflowSlotInfo> workflow,
+        ReloadableSlotSupplier<ActivitySlotInfo> activity,
+        ReloadableSlotSupplier<LocalActivitySlotInfo> localActivity) {
+      this.workflow = workflow;
+      this.activity = activity;
+      this.localActivity = localActivity;
+    }
+  }
+}
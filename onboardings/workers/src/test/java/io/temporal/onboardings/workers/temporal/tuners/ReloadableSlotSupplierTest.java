@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import static org.mockito.Mockito.*;
+
+import io.temporal.worker.tuning.ActivitySlotInfo;
+import io.temporal.worker.tuning.FixedSizeSlotSupplier;
+import io.temporal.worker.tuning.SlotPermit;
+import io.temporal.worker.tuning.SlotReleaseContext;
+import io.temporal.worker.tuning.SlotReserveContext;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReloadableSlotSupplierTest {
+  @SuppressWarnings("unchecked")
+  private final SlotReserveContext<ActivitySlotInfo> ctx = mock(SlotReserveContext.class);
+
+  @Test
+  public void reserveSlot_givenPermitReleasedAsSoonAsItIsIssued_itShouldNotLeakIt()
+      throws Exception {
+    var sut = new ReloadableSlotSupplier<>(new FixedSizeSlotSupplier<ActivitySlotInfo>(1));
+    var held = sut.tryReserveSlot(ctx).orElseThrow();
+    var pending = sut.reserveSlot(ctx);
+    var released = pending.thenAccept(permit -> sut.releaseSlot(releaseOf(permit)));
+
+    sut.releaseSlot(releaseOf(held));
+    released.get(1, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(0, sut.reservedSlots());
+  }
+
+  @Test
+  public void reserveSlot_givenPermitsHeldAcrossReload_itShouldKeepTheTotalUnderTheNewMaximum()
+      throws Exception {
+    var sut = new ReloadableSlotSupplier<>(new FixedSizeSlotSupplier<ActivitySlotInfo>(2));
+    var first = sut.tryReserveSlot(ctx).orElseThrow();
+    sut.tryReserveSlot(ctx).orElseThrow();
+
+    sut.reload(new FixedSizeSlotSupplier<>(2));
+
+    Assertions.assertTrue(sut.tryReserveSlot(ctx).isEmpty());
+    var pending = sut.reserveSlot(ctx);
+    Assertions.assertFalse(pending.isDone());
+    sut.releaseSlot(releaseOf(first));
+    pending.get(1, TimeUnit.SECONDS);
+    Assertions.assertEquals(2, sut.reservedSlots());
+  }
+
+  @Test
+  public void reserveSlot_givenReloadToABiggerProfile_itShouldGrantTheDifference() {
+    var sut = new ReloadableSlotSupplier<>(new FixedSizeSlotSupplier<ActivitySlotInfo>(1));
+    sut.tryReserveSlot(ctx).orElseThrow();
+
+    sut.reload(new FixedSizeSlotSupplier<>(3));
+
+    Assertions.assertTrue(sut.tryReserveSlot(ctx).isPresent());
+    Assertions.assertTrue(sut.tryReserveSlot(ctx).isPresent());
+    Assertions.assertTrue(sut.tryReserveSlot(ctx).isEmpty());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static SlotReleaseContext<ActivitySlotInfo> releaseOf(SlotPermit permit) {
+    SlotReleaseContext<ActivitySlotInfo> release = mock(SlotReleaseContext.class);
+    when(release.getSlotPermit()).thenReturn(permit);
+    return release;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 temporal.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.temporal.onboardings.workers.temporal.tuners;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+public class WorkerTunersTest {
+  private static final String PREFIX = "spring.curriculum.tuners.";
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  public void bind_givenProfiles_itShouldApplyEachSlotTypeAndTheDefaults() {
+    var properties = bind();
+
+    Assertions.assertEquals("crm-io", properties.taskQueues().get("onboardings-integrations"));
+    var crmIo = properties.profiles().get("crm-io");
+    Assertions.assertEquals(TunerProperties.Type.COMPOSITE, crmIo.type());
+    Assertions.assertEquals(TunerProperties.Type.FIXED, crmIo.slotsFor(crmIo.activity()).type());
+    Assertions.assertEquals(200, crmIo.slotsFor(crmIo.activity()).slots());
+    var workflow = crmIo.slotsFor(crmIo.workflow());
+    Assertions.assertEquals(TunerProperties.Type.RESOURCE_BASED, workflow.type());
+    Assertions.assertEquals(Duration.ofMillis(50), workflow.rampThrottle());
+    var conservative = properties.profiles().get("conservative");
+    Assertions.assertEquals(20, conservative.slotsFor(conservative.activity()).slots());
+    Assertions.assertEquals(0.75, properties.profiles().get("resource-based").targetCpuUsage());
+  }
+
+  @Test
+  public void reload_givenAnotherProfile_itShouldSwapTheSlotSuppliersInPlace() {
+    var sut = new WorkerTuners(bind(), meterRegistry);
+    var tuner = sut.tunerFor("onboardings-integrations").orElseThrow();
+    Assertions.assertEquals(
+        Optional.of(200), tuner.getActivityTaskSlotSupplier().getMaximumSlots());
+
+    sut.reload("onboardings-integrations", "conservative");
+
+    Assertions.assertEquals(Optional.of(20), tuner.getActivityTaskSlotSupplier().getMaximumSlots());
+    Assertions.assertEquals(Map.of("onboardings-integrations", "conservative"), sut.profiles());
+    Assertions.assertNotNull(
+        meterRegistry
+            .find("curriculum.tuner.slots")
+            .tags("task_queue", "onboardings-integrations", "profile", "conservative")
+            .gauge());
+    Assertions.assertNull(
+        meterRegistry
+            .find("curriculum.tuner.slots")
+            .tags("task_queue", "onboardings-integrations", "profile", "crm-io")
+            .gauge());
+  }
+
+  @Test
+  public void reload_givenUnknownProfileOrTaskQueue_itShouldRefuse() {
+    var sut = new WorkerTuners(bind(), meterRegistry);
+    sut.tunerFor("onboardings-integrations").orElseThrow();
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> sut.reload("onboardings-integrations", "missing"));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> sut.reload("onboardings", "conservative"));
+    Assertions.assertTrue(sut.tunerFor("untuned").isEmpty());
+  }
+
+  private static TunerProperties bind() {
+    var source =
+        new MapConfigurationPropertySource(
+            Map.of(
+                PREFIX + "task-queues.onboardings-integrations", "crm-io",
+                PREFIX + "profiles.resource-based.type", "resource-based",
+                PREFIX + "profiles.crm-io.type", "composite",
+                PREFIX + "profiles.crm-io.activity.type", "fixed",
+                PREFIX + "profiles.crm-io.activity.slots", "200",
+                PREFIX + "profiles.conservative.type", "fixed",
+                PREFIX + "profiles.conservative.slots", "20"));
+    return new Binder(source).bind("spring.curriculum.tuners", TunerProperties.class).get();
+  }
+}